@@ -0,0 +1,96 @@
+package schemette.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import schemette.Evaluator;
+import schemette.Reader;
+import schemette.cons.Cons;
+import schemette.environment.DefaultEnvironment;
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.expressions.NumberExpression;
+import schemette.expressions.NumberExpression.Fixnum;
+import schemette.expressions.ProcedureExpression;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+
+import static schemette.expressions.NumberExpression.number;
+import static schemette.expressions.SymbolExpression.symbol;
+
+/**
+ * Primitive arithmetic in isolation and in arithmetic heavy Scheme code. {@code addWithStreams} is the boxed,
+ * stream based fold the {@code +} primitive used before it had unboxed fast paths, kept as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArithmeticBenchmark {
+    private final Expression a = number(123456);
+    private final Expression b = number(654321);
+    private Cons<Expression> args;
+    private ProcedureExpression plus;
+    private Environment environment;
+    private Expression fib;
+    private Expression factorial;
+    private Expression loop;
+
+    @Setup
+    public void setup() {
+        args = Cons.copyOf(new Expression[]{a, b});
+        environment = DefaultEnvironment.newInstance();
+        plus = environment.lookup(symbol("+")).procedure();
+        evaluate("(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))");
+        evaluate("(define factorial (lambda (n) (if (= n 1) 1 (* n (factorial (- n 1))))))");
+        evaluate("(define (loop n acc) (if (= n 0) acc (loop (- n 1) (+ acc 2))))");
+        fib = Reader.read("(fib 20)").get(0);
+        factorial = Reader.read("(factorial 20)").get(0);
+        loop = Reader.read("(loop 100000 0)").get(0);
+    }
+
+    @Benchmark
+    public Expression add() {
+        return plus.invoke2(a, b);
+    }
+
+    @Benchmark
+    public Expression addList() {
+        return plus.apply(args);
+    }
+
+    @Benchmark
+    public Expression addWithStreams() {
+        return longFunction(args, (x, y) -> x + y);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Expression fib() {
+        return Evaluator.evaluate(fib, environment);
+    }
+
+    @Benchmark
+    public Expression factorial() {
+        return Evaluator.evaluate(factorial, environment);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Expression countingLoop() {
+        return Evaluator.evaluate(loop, environment);
+    }
+
+    private void evaluate(String input) {
+        Evaluator.evaluate(Reader.read(input).get(0), environment);
+    }
+
+    private static NumberExpression longFunction(Cons<Expression> args, BinaryOperator<Long> accumulator) {
+        return args.stream()
+                .map(e -> ((Fixnum) e.number()).value)
+                .reduce(accumulator)
+                .map(NumberExpression::number)
+                .get();
+    }
+}
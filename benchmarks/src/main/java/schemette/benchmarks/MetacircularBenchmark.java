@@ -0,0 +1,36 @@
+package schemette.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import schemette.Evaluator;
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metacircular evaluator of ch4-mceval.scm running a recursive factorial, which exercises nearly every
+ * kind of expression Schemette evaluates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetacircularBenchmark {
+    private Environment environment;
+    private Expression factorial;
+
+    @Setup
+    public void setup() {
+        environment = Scripts.stdlib();
+        Scripts.load(environment, Scripts.source("ch4-mceval.scm"));
+        Scripts.load(environment, "(eval '(define (factorial n) (if (= n 0) 1 (* n (factorial (- n 1))))) the-global-environment)");
+        factorial = Scripts.read("(eval '(factorial 10) the-global-environment)");
+    }
+
+    @Benchmark
+    public Expression factorial() {
+        return Evaluator.evaluate(factorial, environment);
+    }
+}
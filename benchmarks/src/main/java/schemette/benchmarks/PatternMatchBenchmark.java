@@ -0,0 +1,71 @@
+package schemette.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import schemette.Evaluator;
+import schemette.StreamingReader;
+import schemette.cons.Cons;
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+
+import java.util.concurrent.TimeUnit;
+
+import static schemette.expressions.BooleanExpression.bool;
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.SymbolExpression.symbol;
+
+/**
+ * The pattern matcher of pattern-match.scm binding the variables of an ellipsis pattern.
+ * <p>
+ * The file is a work in progress: it starts with a Racket {@code #lang} line, its {@code expand} is unfinished
+ * and it uses {@code and}, which Schemette doesn't have. The first two are left out when it is loaded, and
+ * {@code and} is rewritten into nested {@code if}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternMatchBenchmark {
+    private Environment environment;
+    private Expression bindings;
+
+    @Setup
+    public void setup() {
+        environment = Scripts.stdlib();
+        String source = Scripts.source("pattern-match.scm")
+                .replace("#lang racket", "")
+                .replaceAll("(?s)\\(define \\(expand template.*?(?=\\n\\(define )", "");
+        try (StreamingReader reader = StreamingReader.of(source)) {
+            while (reader.hasNext()) {
+                Evaluator.evaluate(withoutAnd(reader.next()), environment);
+            }
+        }
+        bindings = Scripts.read("(get-bindings '(let ((a b) ...) body) '(let ((a 1) (b 2) (c 3) (d 4) (e 5)) (+ a b c d e)))");
+    }
+
+    @Benchmark
+    public Expression bindings() {
+        return Evaluator.evaluate(bindings, environment);
+    }
+
+    private static Expression withoutAnd(Expression exp) {
+        if (!exp.isList() || exp.list().value.isEmpty()) {
+            return exp;
+        }
+
+        Cons<Expression> elements = exp.list().value.stream()
+                .map(PatternMatchBenchmark::withoutAnd)
+                .collect(Cons.collector());
+        return elements.car() == symbol("and") ? and(elements.cdr()) : list(elements);
+    }
+
+    private static Expression and(Cons<Expression> operands) {
+        if (operands.isEmpty()) {
+            return bool(true);
+        } else if (operands.cdr().isEmpty()) {
+            return operands.car();
+        }
+        return list(symbol("if"), operands.car(), and(operands.cdr()), bool(false));
+    }
+}
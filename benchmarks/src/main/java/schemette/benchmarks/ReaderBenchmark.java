@@ -0,0 +1,70 @@
+package schemette.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import schemette.Reader;
+import schemette.expressions.BooleanExpression;
+import schemette.expressions.Expression;
+import schemette.expressions.NumberExpression;
+import schemette.expressions.SymbolExpression;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput on generated, symbol heavy source of {@code definitions} procedures.
+ * {@code classifyWithExceptions} is the token classification the reader used before it scanned numeric literals
+ * itself, kept here as the baseline for {@code classify}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+    @Param({"1000", "10000"})
+    public int definitions;
+
+    private String source;
+    private List<String> tokens;
+
+    @Setup
+    public void setup() {
+        source = Sources.symbolHeavy(definitions);
+        tokens = Reader.tokenize(source);
+    }
+
+    @Benchmark
+    public List<Expression> read() {
+        return Reader.read(source);
+    }
+
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (String token : tokens) {
+            blackhole.consume(Reader.atom(token));
+        }
+    }
+
+    @Benchmark
+    public void classifyWithExceptions(Blackhole blackhole) {
+        for (String token : tokens) {
+            blackhole.consume(atomWithExceptions(token));
+        }
+    }
+
+    private static Expression atomWithExceptions(String token) {
+        if (token.equals("#t") || token.equals("true")) {
+            return BooleanExpression.bool(true);
+        } else if (token.equals("#f") || token.equals("false")) {
+            return BooleanExpression.bool(false);
+        } else {
+            try {
+                return NumberExpression.number(Long.parseLong(token));
+            } catch (NumberFormatException e) {
+                return SymbolExpression.symbol(token);
+            }
+        }
+    }
+}
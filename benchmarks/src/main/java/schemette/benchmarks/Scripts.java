@@ -0,0 +1,52 @@
+package schemette.benchmarks;
+
+import com.google.common.io.CharStreams;
+import schemette.Evaluator;
+import schemette.Reader;
+import schemette.StreamingReader;
+import schemette.environment.DefaultEnvironment;
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Scheme files of the project, which the benchmark jar carries as {@code scm/*.scm} resources.
+ */
+class Scripts {
+    static String source(String name) {
+        try (InputStream in = Scripts.class.getResourceAsStream("/scm/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No such script: " + name);
+            }
+            return CharStreams.toString(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a new environment with the standard library loaded.
+     */
+    static Environment stdlib() {
+        Environment environment = DefaultEnvironment.newInstance();
+        load(environment, source("stdlib.scm"));
+        return environment;
+    }
+
+    static void load(Environment environment, String source) {
+        try (StreamingReader reader = StreamingReader.of(source)) {
+            while (reader.hasNext()) {
+                Evaluator.evaluate(reader.next(), environment);
+            }
+        }
+    }
+
+    static Expression read(String source) {
+        return Reader.read(source).get(0);
+    }
+}
@@ -0,0 +1,23 @@
+package schemette.benchmarks;
+
+/**
+ * Generated Scheme sources for the benchmarks.
+ */
+class Sources {
+    /**
+     * Procedure definitions in the style of ch4-mceval.scm, where nearly every token is an identifier.
+     */
+    static String symbolHeavy(int definitions) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < definitions; i++) {
+            sb.append("(define (eval-form-").append(i).append(" exp env)\n")
+                    .append("  (cond ((self-evaluating? exp) exp)\n")
+                    .append("        ((variable? exp) (lookup-variable-value exp env))\n")
+                    .append("        ((quoted? exp) (text-of-quotation exp))\n")
+                    .append("        ((assignment? exp) (eval-assignment exp env))\n")
+                    .append("        (else (apply (eval (operator exp) env) (list-of-values (operands exp) env) ")
+                    .append(i).append("))))\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package schemette.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import schemette.Evaluator;
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List building and the list procedures of stdlib.scm on a list of {@code size} numbers. {@code map} recurses
+ * once per element, so the benchmarks run with a larger stack than the default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+public class StdlibBenchmark {
+    @Param({"1000"})
+    public int size;
+
+    private Environment environment;
+    private Expression build;
+    private Expression map;
+    private Expression length;
+
+    @Setup
+    public void setup() {
+        environment = Scripts.stdlib();
+        Scripts.load(environment, "(define (iota n acc) (if (= n 0) acc (iota (- n 1) (cons n acc))))");
+        Scripts.load(environment, "(define numbers (iota " + size + " '()))");
+        build = Scripts.read("(iota " + size + " '())");
+        map = Scripts.read("(map (lambda (x) (+ x 1)) numbers)");
+        length = Scripts.read("(length numbers)");
+    }
+
+    @Benchmark
+    public Expression build() {
+        return Evaluator.evaluate(build, environment);
+    }
+
+    @Benchmark
+    public Expression map() {
+        return Evaluator.evaluate(map, environment);
+    }
+
+    @Benchmark
+    public Expression length() {
+        return Evaluator.evaluate(length, environment);
+    }
+}
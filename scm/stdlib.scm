@@ -10,9 +10,11 @@
         (else (cons (f (car lst)) (map f (cdr lst))))))
 
 (define (length lst)
-  (cond ((null? lst) 
-         0)
-        (else (+ 1 (length (cdr lst))))))
+  (define (iter lst n)
+    (cond ((null? lst)
+           n)
+          (else (iter (cdr lst) (+ n 1)))))
+  (iter lst 0))
 
 (define (newline) (display "\n"))
 
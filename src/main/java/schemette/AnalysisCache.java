@@ -0,0 +1,146 @@
+package schemette;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import schemette.cons.Cons;
+import schemette.expressions.Expression;
+import schemette.nodes.Node;
+
+import java.util.Iterator;
+
+import static schemette.expressions.ListExpression.Nil.nil;
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.SymbolExpression.symbol;
+
+/**
+ * Keeps the analyzed form of recently evaluated expressions, so that evaluating the same code again, for example
+ * from {@code eval} in a loop or by loading a file again, only executes it.
+ * <p>
+ * Expressions are matched by structure, so code built afresh each time is found as long as it is equal. Quoted
+ * lists and vectors are the exception: they are data that the code returns and the caller may modify, so they are
+ * matched by identity and each distinct list or vector gets its own analyzed code. The key is a copy of the code,
+ * which the caller is free to change after evaluating it.
+ */
+class AnalysisCache {
+    /**
+     * Number of analyzed expressions each interpreter keeps, tunable with the {@code schemette.analysis.cache.size}
+     * system property. Zero turns the cache off.
+     */
+    static final int SIZE = Integer.getInteger("schemette.analysis.cache.size", 1024);
+
+    private static final Expression QUOTE = symbol("quote");
+
+    private final Cache<Key, Node> cache;
+
+    AnalysisCache(long size) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .recordStats()
+                .build();
+    }
+
+    Node analyze(Expression exp) {
+        Key key = new Key(exp);
+        Node node = cache.getIfPresent(key);
+        if (node == null) {
+            node = Evaluator.analyze(exp);
+            cache.put(key.copy(), node);
+        }
+        return node;
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static final class Key {
+        private final Expression exp;
+        private final int hash;
+
+        Key(Expression exp) {
+            this(exp, hash(exp, false));
+        }
+
+        private Key(Expression exp, int hash) {
+            this.exp = exp;
+            this.hash = hash;
+        }
+
+        Key copy() {
+            return new Key(snapshot(exp, false), hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && same(exp, ((Key) o).exp, false);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static boolean isCode(Expression exp, boolean quoted) {
+            return exp.isList() && exp != nil() && !quoted;
+        }
+
+        private static boolean isQuote(Cons<Expression> list) {
+            return list.car() == QUOTE;
+        }
+
+        private static int hash(Expression exp, boolean quoted) {
+            if (exp.isList() && quoted) {
+                return System.identityHashCode(exp.list().value);
+            } else if (exp.isVector()) {
+                return System.identityHashCode(exp);
+            }
+            if (!isCode(exp, quoted)) {
+                return exp.hashCode();
+            }
+
+            Cons<Expression> list = exp.list().value;
+            boolean quote = isQuote(list);
+            int result = 1;
+            for (Expression e : list) {
+                result = 31 * result + hash(e, quote);
+            }
+            return result;
+        }
+
+        private static boolean same(Expression a, Expression b, boolean quoted) {
+            if (a.isList() && quoted) {
+                return b.isList() && a.list().value == b.list().value;
+            } else if (a.isVector()) {
+                return a == b;
+            }
+            if (!isCode(a, quoted)) {
+                return a.equals(b);
+            }
+            if (!isCode(b, quoted)) {
+                return false;
+            }
+
+            Cons<Expression> list = a.list().value;
+            boolean quote = isQuote(list);
+            Iterator<Expression> others = b.list().value.iterator();
+            for (Expression e : list) {
+                if (!others.hasNext() || !same(e, others.next(), quote)) {
+                    return false;
+                }
+            }
+            return !others.hasNext();
+        }
+
+        private static Expression snapshot(Expression exp, boolean quoted) {
+            if (!isCode(exp, quoted)) {
+                return exp;
+            }
+            Cons<Expression> list = exp.list().value;
+            boolean quote = isQuote(list);
+            return list(list.stream()
+                    .map(e -> snapshot(e, quote))
+                    .collect(Cons.collector()));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package schemette;
+
+import com.google.common.io.ByteStreams;
+import schemette.expressions.Expression;
+import schemette.image.ImageInput;
+import schemette.image.ImageOutput;
+import schemette.nodes.Node;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+/**
+ * The analyzed forms of a source file, kept next to it in a file with the extension {@code .scmc} so that loading
+ * the file again executes them without reading or analyzing the text. The compiled file records a checksum of the
+ * source it was made from and is only used while the source still matches; otherwise it is written again.
+ * <p>
+ * Both files are read through memory-mapped buffers. The source is handled one form at a time: each form is written
+ * before it is executed, so a compiled file holds the code as it was read, and nothing of a form is kept once the
+ * next one starts. A compiled file is only kept if every form of the source loads without an error, and all of its
+ * forms are decoded before the first one runs, so a damaged file is written again instead of failing halfway.
+ */
+class CompiledFile {
+    static final String EXTENSION = "c";
+
+    private final Interpreter interpreter;
+    private final Path source;
+    private final ByteBuffer text;
+    private final Path compiled;
+
+    CompiledFile(Interpreter interpreter, Path source, ByteBuffer text) {
+        this.interpreter = interpreter;
+        this.source = source;
+        this.text = text;
+        this.compiled = source.resolveSibling(source.getFileName() + EXTENSION);
+    }
+
+    Expression load() throws IOException {
+        byte[] hash = hash(text);
+
+        List<Node> nodes = read(hash);
+        if (nodes == null) {
+            return compile(hash);
+        }
+
+        Expression result = Expression.none();
+        for (Node node : nodes) {
+            result = node.execute(interpreter.environment());
+        }
+        return result;
+    }
+
+    /**
+     * Identifies a version of the source by its length and two checksums. Cryptographic hashes cost more to set up
+     * in a new JVM than loading a small file does.
+     */
+    private static byte[] hash(ByteBuffer text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.duplicate());
+        Adler32 adler = new Adler32();
+        adler.update(text.duplicate());
+        return ByteBuffer.allocate(16)
+                .putLong(text.remaining())
+                .putInt((int) crc.getValue())
+                .putInt((int) adler.getValue())
+                .array();
+    }
+
+    /**
+     * Returns the compiled forms, or {@code null} if there is no compiled file for the current source or it can't
+     * be decoded, such as when it was cut short or names a primitive this version doesn't have.
+     */
+    private List<Node> read(byte[] hash) {
+        try {
+            ImageInput in = new ImageInput(Interpreter.map(compiled), interpreter.environment(), interpreter.primitives());
+            if (!Arrays.equals(in.readBytes(), hash)) {
+                return null;
+            }
+
+            List<Node> nodes = new ArrayList<>();
+            for (Node node = in.readNode(); node != null; node = in.readNode()) {
+                nodes.add(node);
+                in.reset();
+            }
+            return nodes;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private Expression compile(byte[] hash) throws IOException {
+        Path temp = createTemp();
+        try {
+            Expression result = Expression.none();
+            try (OutputStream stream = temp != null
+                    ? new BufferedOutputStream(Files.newOutputStream(temp))
+                    : ByteStreams.nullOutputStream();
+                 ParallelReader reader = ParallelReader.of(text.duplicate())) {
+                ImageOutput out = new ImageOutput(stream, interpreter.environment(), interpreter.primitives());
+                out.writeBytes(hash);
+                while (reader.hasNext()) {
+                    Node node = Evaluator.analyze(reader.next());
+                    out.writeNode(node);
+                    out.reset();
+                    result = node.execute(interpreter.environment());
+                }
+                out.writeNode(null);
+                out.flush();
+            }
+
+            if (temp != null) {
+                move(temp);
+            }
+            return result;
+        } finally {
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Returns a new file next to the source to write the compiled forms to, or {@code null} if the directory of
+     * the source can't be written to, in which case the source is simply loaded from the text every time. The file
+     * gets the permissions of the source where the file system has them, rather than those of a private temp file.
+     */
+    private Path createTemp() {
+        Path temp;
+        try {
+            temp = Files.createTempFile(source.toAbsolutePath().getParent(), source.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            return null;
+        }
+        try {
+            Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(source));
+        } catch (IOException | UnsupportedOperationException ignored) {
+        }
+        return temp;
+    }
+
+    /**
+     * Replaces the compiled file in one step, so that other interpreters loading the same file never see it half
+     * written.
+     */
+    private void move(Path temp) {
+        try {
+            Files.move(temp, compiled, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -3,133 +3,158 @@ package schemette;
 import com.google.common.collect.ImmutableSet;
 import schemette.cons.Cons;
 import schemette.environment.Environment;
+import schemette.environment.Scope;
 import schemette.expressions.*;
+import schemette.nodes.*;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static schemette.expressions.ListExpression.list;
 import static schemette.expressions.SymbolExpression.symbol;
 
 public class Evaluator {
-
+    /**
+     * Analyzes and executes an expression. {@link Interpreter#evaluate(Expression)} reuses the analyzed form of
+     * expressions the interpreter has evaluated recently instead.
+     */
     public static Expression evaluate(Expression exp, Environment env) {
-        return analyze(exp).apply(env);
+        return analyze(exp).execute(env);
+    }
+
+    public static Node analyze(Expression exp) {
+        return new RootNode(analyze(exp, null, false));
     }
 
-    public static Function<Environment, Expression> analyze(Expression exp) {
+    /**
+     * Analyzes an expression in the given scope. Expressions in tail position return procedure calls as
+     * {@link TailCall}s for the caller's trampoline instead of calling the procedure on the Java stack.
+     */
+    private static Node analyze(Expression exp, Scope scope, boolean tail) {
         if (isSelfEvaluating(exp)) {
-            return e -> exp;
+            return new ConstantNode(exp);
         } else if (exp.isSymbol()) {
-            return env -> env.lookup(exp.symbol());
+            return analyzeVariable(exp.symbol(), scope);
         } else if (isSpecialForm(exp)) {
-            return analyzeSpecialForm(exp.list());
+            return analyzeSpecialForm(exp.list(), scope, tail);
         } else if (isFunctionCall(exp)) {
-            return analyzeFunctionCall(exp.list());
+            return analyzeFunctionCall(exp.list(), scope, tail);
         }
 
         throw new IllegalArgumentException(String.format("Unable to evaluate expression '%s'", exp));
     }
 
-    private static Function<Environment, Expression> analyzeSpecialForm(ListExpression exp) {
+    private static Node analyzeSpecialForm(ListExpression exp, Scope scope, boolean tail) {
         Cons<Expression> exps = exp.value;
         switch (exps.car().symbol().value) {
             case "quote":
                 return analyzeQuote(exps);
             case "set!":
-                return analyzeSet(exps);
+                return analyzeSet(exps, scope);
             case "define":
                 if (isVarDefinition(exps)) {
-                    return analyzeVarDefinition(exps);
+                    return analyzeVarDefinition(exps, scope);
                 } else {
-                    return analyzeFunctionDefinition(exps);
+                    return analyzeFunctionDefinition(exps, scope);
                 }
             case "if":
-                return analyzeIf(exps);
+                return analyzeIf(exps, scope, tail);
             case "lambda":
-                return analyzeLambda(exps);
+                return analyzeLambda(exps, scope);
             case "begin":
-                return analyzeBegin(exps);
+                return analyzeBegin(exps, scope, tail);
             case "let":
-                return analyzeLet(exps);
+                return analyzeLet(exps, scope, tail);
             case "cond":
-                return analyzeCond(exps);
+                return analyzeCond(exps, scope, tail);
         }
 
         throw new IllegalArgumentException(String.format("Invalid special form expression '%s'", exp));
 
     }
 
-    private static Function<Environment, Expression> analyzeQuote(Cons<Expression> exps) {
-        return env -> exps.cadr();
+    private static Node analyzeVariable(SymbolExpression symbol, Scope scope) {
+        Scope.Address address = Scope.resolve(scope, symbol);
+        if (address == null) {
+            return new GlobalReadNode(symbol, Scope.depth(scope));
+        }
+        return new LocalReadNode(symbol, address.depth, address.slot);
+    }
+
+    private static Node analyzeQuote(Cons<Expression> exps) {
+        return new ConstantNode(exps.cadr());
     }
 
-    private static Function<Environment, Expression> analyzeLambda(Cons<Expression> exps) {
+    private static Node analyzeLambda(Cons<Expression> exps, Scope scope) {
         Cons<SymbolExpression> paramNames = exps.cadr().list().value.stream()
                 .map(Expression::symbol)
                 .collect(Cons.collector());
-        return analyzeProcedure(paramNames, exps);
+        return analyzeProcedure(paramNames, exps, scope);
     }
 
-    private static Function<Environment, Expression> analyzeSet(Cons<Expression> exps) {
+    private static Node analyzeSet(Cons<Expression> exps, Scope scope) {
         SymbolExpression symbol = exps.cadr().symbol();
-        Function<Environment, Expression> valueProc = analyze(exps.cdr().cadr());
+        Node value = analyze(exps.cdr().cadr(), scope, false);
 
-        return env -> {
-            env.set(symbol, valueProc.apply(env));
-            return Expression.none();
-        };
+        Scope.Address address = Scope.resolve(scope, symbol);
+        if (address == null) {
+            return new GlobalWriteNode(symbol, Scope.depth(scope), false, value);
+        }
+        return new LocalWriteNode(address.depth, address.slot, value);
     }
 
-    private static Function<Environment, Expression> analyzeFunctionDefinition(Cons<Expression> exps) {
+    private static Node analyzeFunctionDefinition(Cons<Expression> exps, Scope scope) {
         SymbolExpression name = exps.cadr().list().value.car().symbol();
         Cons<SymbolExpression> paramNames = exps.cadr().list().value.cdr().stream()
                 .map(Expression::symbol)
                 .collect(Cons.collector());
-        Function<Environment, Expression> lambda = analyzeProcedure(paramNames, exps);
-        return env -> {
-            env.define(name, lambda.apply(env));
-            return Expression.none();
-        };
+        return makeDefinition(name, s -> analyzeProcedure(paramNames, exps, s), scope);
     }
 
-    private static Function<Environment, Expression> analyzeVarDefinition(Cons<Expression> exps) {
+    private static Node analyzeVarDefinition(Cons<Expression> exps, Scope scope) {
         SymbolExpression symbol = exps.cadr().symbol();
-        Function<Environment, Expression> valueProc = analyze(exps.cdr().cadr());
-        return env -> {
-            env.define(symbol, valueProc.apply(env));
-            return Expression.none();
-        };
+        return makeDefinition(symbol, s -> analyze(exps.cdr().cadr(), s, false), scope);
+    }
+
+    private static Node makeDefinition(SymbolExpression symbol, Function<Scope, Node> analyzeValue, Scope scope) {
+        if (scope == null) {
+            return new GlobalWriteNode(symbol, 0, true, analyzeValue.apply(null));
+        }
+
+        int slot = scope.define(symbol);
+        return new LocalWriteNode(0, slot, analyzeValue.apply(scope));
     }
 
     private static boolean isVarDefinition(Cons<Expression> exps) {
         return exps.cadr().isSymbol();
     }
 
-    private static Function<Environment, Expression> analyzeFunctionCall(ListExpression exp) {
-        List<Function<Environment, Expression>> map = exp.value.stream()
-                .map(Evaluator::analyze)
-                .collect(Collectors.toList());
+    private static Node analyzeFunctionCall(ListExpression exp, Scope scope, boolean tail) {
+        Expression operator = exp.value.car();
+        Node[] operands = analyzeAll(exp.value.cdr(), scope);
 
-        return env -> {
-            Cons<Expression> list = map.stream()
-                    .map(e -> e.apply(env))
-                    .collect(Cons.collector());
-            return list.car().procedure().lambda.apply(list.cdr());
-        };
+        if (operator.isSymbol() && Scope.resolve(scope, operator.symbol()) == null) {
+            return PrimitiveCallNode.create(operator.symbol(), Scope.depth(scope), operands, tail);
+        }
+        return CallNode.create(analyze(operator, scope, false), operands, tail);
+    }
+
+    private static Node[] analyzeAll(Cons<Expression> exps, Scope scope) {
+        Node[] nodes = new Node[(int) exps.size()];
+        int i = 0;
+        for (Expression e : exps) {
+            nodes[i++] = analyze(e, scope, false);
+        }
+        return nodes;
     }
 
-    private static Function<Environment, Expression> analyzeLet(Cons<Expression> exps) {
-        List<Function<Environment, Expression>> letBindingValues = letBindingValues(exps);
-        Function<Environment, Expression> letBody = analyzeProcedure(letBindingSymbols(exps), exps);
+    private static Node analyzeLet(Cons<Expression> exps, Scope scope, boolean tail) {
+        Node[] letBindingValues = analyzeAll(letBindingExpressions(exps), scope);
+        Node letBody = analyzeProcedure(letBindingSymbols(exps), exps, scope);
 
-        return env -> {
-            Cons<Expression> letParams = letBindingValues.stream()
-                    .map(a -> a.apply(env))
-                    .collect(Cons.collector());
-            return letBody.apply(env).procedure().lambda.apply(letParams);
-        };
+        return CallNode.create(letBody, letBindingValues, tail);
     }
 
     private static Cons<SymbolExpression> letBindingSymbols(Cons<Expression> exps) {
@@ -138,91 +163,96 @@ public class Evaluator {
                 .collect(Cons.collector());
     }
 
-    private static List<Function<Environment, Expression>> letBindingValues(Cons<Expression> exps) {
+    private static Cons<Expression> letBindingExpressions(Cons<Expression> exps) {
         return exps.cadr().list().value.stream()
                 .map(e -> e.list().value.cadr())
-                .map(Evaluator::analyze)
-                .collect(Collectors.toList());
+                .collect(Cons.collector());
     }
 
-    private static Function<Environment, Expression> analyzeBegin(Cons<Expression> exps) {
-        return analyzeSequence(exps.cdr());
+    private static Node analyzeBegin(Cons<Expression> exps, Scope scope, boolean tail) {
+        return analyzeSequence(exps.cdr(), scope, tail);
     }
 
-    private static Function<Environment, Expression> analyzeSequence(Cons<Expression> exps) {
-        List<Function<Environment, Expression>> seq = exps.stream()
-                .map(Evaluator::analyze)
-                .collect(Collectors.toList());
+    private static Node analyzeSequence(Cons<Expression> exps, Scope scope, boolean tail) {
+        List<Node> seq = new ArrayList<>();
+        for (Cons<Expression> e = exps; !e.isEmpty(); e = e.cdr()) {
+            seq.add(analyze(e.car(), scope, tail && e.cdr().isEmpty()));
+        }
 
-        return env -> seq.stream()
-                .collect(Collectors.reducing(Expression.none(), a -> a.apply(env), (a, b) -> b));
+        if (seq.size() == 1) {
+            return seq.get(0);
+        }
+        return new SequenceNode(seq.toArray(new Node[seq.size()]));
     }
 
-    private static Function<Environment, Expression> analyzeCond(Cons<Expression> exps) {
-        return condToIf(exps.cdr());
+    private static Node analyzeCond(Cons<Expression> exps, Scope scope, boolean tail) {
+        return condToIf(exps.cdr(), scope, tail);
     }
 
-    private static Function<Environment, Expression> condToIf(Cons<Expression> exps) {
+    private static Node condToIf(Cons<Expression> exps, Scope scope, boolean tail) {
         if (exps.isEmpty()) {
-            return e -> BooleanExpression.bool(false);
+            return new ConstantNode(BooleanExpression.FALSE);
         } else if (exps.size() == 1) {
-            Function<Environment, Expression> condition = analyze(exps.car().list().value.car());
-            Function<Environment, Expression> consequent = analyze(exps.car().list().value.cadr());
-            Optional<Function<Environment, Expression>> alternative = Optional.empty();
+            Node condition = analyze(exps.car().list().value.car(), scope, false);
+            Node consequent = analyze(exps.car().list().value.cadr(), scope, tail);
 
-            return makeIf(condition, consequent, alternative);
+            return new IfNode(condition, consequent, null);
         } else {
             if (exps.cadr().list().value.car().equals(symbol("else"))) {
-                Function<Environment, Expression> condition = analyze(exps.car().list().value.car());
-                Function<Environment, Expression> consequent = analyze(exps.car().list().value.cadr());
-                Optional<Function<Environment, Expression>> alternative = Optional.of(analyze(exps.cadr().list().value.cadr()));
-                return makeIf(condition, consequent, alternative);
+                Node condition = analyze(exps.car().list().value.car(), scope, false);
+                Node consequent = analyze(exps.car().list().value.cadr(), scope, tail);
+                Node alternative = analyze(exps.cadr().list().value.cadr(), scope, tail);
+                return new IfNode(condition, consequent, alternative);
             } else {
-                Function<Environment, Expression> condition = analyze(exps.car().list().value.car());
-                Function<Environment, Expression> consequent = analyze(exps.car().list().value.cadr());
-                Optional<Function<Environment, Expression>> alternative = Optional.of(condToIf(exps.cdr()));
+                Node condition = analyze(exps.car().list().value.car(), scope, false);
+                Node consequent = analyze(exps.car().list().value.cadr(), scope, tail);
+                Node alternative = condToIf(exps.cdr(), scope, tail);
 
-                return makeIf(condition, consequent, alternative);
+                return new IfNode(condition, consequent, alternative);
             }
         }
     }
 
-    private static Function<Environment, Expression> makeIf(Function<Environment, Expression> condition, Function<Environment, Expression> consequent, Optional<Function<Environment, Expression>> alternative) {
-        return env -> {
-            if (isTruthy(condition.apply(env))) {
-                return consequent.apply(env);
-            } else {
-                return alternative.map(a -> a.apply(env)).orElse(Expression.none());
-            }
-        };
+    private static Node analyzeIf(Cons<Expression> exps, Scope scope, boolean tail) {
+        Node condition = analyze(exps.cadr(), scope, false);
+        Node consequent = analyze(exps.cdr().cadr(), scope, tail);
+        Node alternative = exps.size() > 3 ? analyze(exps.cdr().cdr().cadr(), scope, tail) : null;
+        return new IfNode(condition, consequent, alternative);
     }
 
-    private static Function<Environment, Expression> analyzeIf(Cons<Expression> exps) {
-        Function<Environment, Expression> condition = analyze(exps.cadr());
-        Function<Environment, Expression> consequent = analyze(exps.cdr().cadr());
-        Optional<Function<Environment, Expression>> alternative = exps.size() > 3 ? Optional.of(analyze(exps.cdr().cdr().cadr())) : Optional.empty();
-        return makeIf(condition, consequent, alternative);
-    }
+    private static Node analyzeProcedure(Cons<SymbolExpression> names, Cons<Expression> exps, Scope scope) {
+        Cons<SymbolExpression> params = names.stream()
+                .filter(n -> !n.equals(symbol(".")))
+                .collect(Cons.collector());
+        boolean rest = params.size() != names.size();
+        int fixed = (int) params.size() - (rest ? 1 : 0);
 
-    private static Function<Environment, Expression> analyzeProcedure(Cons<SymbolExpression> names, Cons<Expression> exps) {
-        Function<Environment, Expression> body = analyzeSequence(exps.cdr().cdr());
-        return env ->
-                ProcedureExpression.procedure(args ->
-                        body.apply(env.extend(makeMap(names, args, new LinkedHashMap<>()))));
+        Scope procedureScope = Scope.extend(scope, params);
+        scanDefinitions(exps.cdr().cdr(), procedureScope);
+        Node body = analyzeSequence(exps.cdr().cdr(), procedureScope, true);
+
+        return new LambdaNode(body, procedureScope.size(), fixed, rest);
     }
 
-    private static Map<SymbolExpression, Expression> makeMap(Cons<SymbolExpression> names, Cons<Expression> args, Map<SymbolExpression, Expression> map) {
-        if (names.isEmpty()) {
-            return map;
-        } else if (names.car().equals(symbol("."))) {
-            map.put(names.cadr(), list(args));
-            return map;
-        } else {
-            map.put(names.car(), args.car());
-            return makeMap(names.cdr(), args.cdr(), map);
+    /**
+     * Reserves frame slots for the internal definitions of a procedure body before the body is analyzed, so that
+     * the definitions can refer to each other regardless of their order.
+     */
+    private static void scanDefinitions(Cons<Expression> body, Scope scope) {
+        for (Expression exp : body) {
+            if (isForm(exp, "define")) {
+                Expression target = exp.list().value.cadr();
+                scope.define(target.isSymbol() ? target.symbol() : target.list().value.car().symbol());
+            } else if (isForm(exp, "begin")) {
+                scanDefinitions(exp.list().value.cdr(), scope);
+            }
         }
     }
 
+    private static boolean isForm(Expression exp, String keyword) {
+        return exp.isList() && !exp.list().value.isEmpty() && exp.list().value.car().equals(symbol(keyword));
+    }
+
     private static boolean isSpecialForm(Expression exp) {
         return exp.isList() && exp.list().value.car().isSymbol()
                 && SPECIAL_FORMS.contains(exp.list().value.car().symbol());
@@ -233,11 +263,7 @@ public class Evaluator {
     }
 
     private static boolean isSelfEvaluating(Expression exp) {
-        return exp.isNumber() || exp.isBoolean() || exp.isString() || exp == Expression.none() || (exp.isList() && exp.list().value.size() == 0);
-    }
-
-    private static boolean isTruthy(Expression exp) {
-        return !BooleanExpression.bool(false).equals(exp);
+        return exp.isNumber() || exp.isBoolean() || exp.isString() || exp.isVector() || exp == Expression.none() || (exp.isList() && exp.list().value.size() == 0);
     }
 
     private static final Set<SymbolExpression> SPECIAL_FORMS = ImmutableSet.of("quote", "set!", "define", "if", "lambda", "begin", "let", "cond").stream()
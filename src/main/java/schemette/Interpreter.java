@@ -0,0 +1,208 @@
+package schemette;
+
+import com.google.common.cache.CacheStats;
+import schemette.environment.DefaultEnvironment;
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.expressions.SymbolExpression;
+import schemette.image.ImageInput;
+import schemette.image.ImageOutput;
+import schemette.nodes.Node;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An interpreter with its own global environment, I/O ports and cache of analyzed code. The primitives that print,
+ * read or evaluate are bound to the interpreter they were created for, and analyzed code, which rewrites itself as
+ * it runs, is never shared with another interpreter, so interpreters don't share any state and can be used on
+ * different threads at the same time. A single interpreter is not safe for concurrent use, except by the tasks its
+ * {@code future}, {@code pmap} and {@code preduce} primitives start, which share its environment under the rules
+ * described in {@code ParallelPrimitives}.
+ */
+public class Interpreter {
+    private static final boolean LOAD_COMPILED = Boolean.parseBoolean(System.getProperty("schemette.load.compiled", "true"));
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final Map<SymbolExpression, Expression> primitives;
+    private final Environment environment;
+    private final AnalysisCache analysisCache = AnalysisCache.SIZE > 0 ? new AnalysisCache(AnalysisCache.SIZE) : null;
+
+    public Interpreter() {
+        this(System.in, System.out);
+    }
+
+    public Interpreter(InputStream in, PrintStream out) {
+        this(new InputStreamReader(in), out);
+    }
+
+    public Interpreter(java.io.Reader in, PrintStream out) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        this.out = out;
+        this.primitives = DefaultEnvironment.primitives(this);
+        this.environment = new Environment(primitives);
+    }
+
+    public Environment environment() {
+        return environment;
+    }
+
+    /**
+     * Returns the primitives the global environment started with, by name.
+     */
+    public Map<SymbolExpression, Expression> primitives() {
+        return primitives;
+    }
+
+    public PrintStream out() {
+        return out;
+    }
+
+    /**
+     * Evaluates an expression, reusing its analyzed form if an equal expression has been evaluated recently by this
+     * interpreter.
+     */
+    public Expression evaluate(Expression exp) {
+        Node node = analysisCache != null ? analysisCache.analyze(exp) : Evaluator.analyze(exp);
+        return node.execute(environment);
+    }
+
+    /**
+     * Returns the hit and miss counts of the analysis cache used by {@link #evaluate(Expression)}.
+     */
+    public CacheStats analysisCacheStats() {
+        return analysisCache != null ? analysisCache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Evaluates every expression of a source text in order and returns the value of the last one.
+     */
+    public Expression evaluate(String source) {
+        try (StreamingReader reader = StreamingReader.of(source)) {
+            return evaluateAll(reader);
+        }
+    }
+
+    /**
+     * Evaluates every expression of a source file in order and returns the value of the last one. Unless the
+     * {@code schemette.load.compiled} system property is {@code false}, the analyzed expressions are kept in a
+     * {@link CompiledFile} next to the source and used instead of the text until the source changes.
+     */
+    public Expression load(String file) {
+        try {
+            Path path = Paths.get(file);
+            ByteBuffer text = map(path);
+            if (LOAD_COMPILED) {
+                return new CompiledFile(this, path, text).load();
+            }
+            try (ParallelReader reader = ParallelReader.of(text)) {
+                return evaluateAll(reader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the expressions of a file in order and passes each one to an action as data, without evaluating it.
+     * The file is mapped rather than read into memory and parsed on the common fork-join pool a chunk at a time, so
+     * only the chunks being parsed ahead of the expression being handled have to fit in the heap.
+     */
+    public void loadData(String file, Consumer<Expression> action) {
+        try (ParallelReader reader = ParallelReader.of(map(Paths.get(file)))) {
+            while (reader.hasNext()) {
+                action.accept(reader.next());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes an image of the global variables that have been defined or assigned since the interpreter was created,
+     * along with the analyzed procedures and data they refer to. Loading the image into a new interpreter restores
+     * them without reading or analyzing the files they came from.
+     */
+    public void saveImage(String file) {
+        Map<SymbolExpression, Expression> definitions = new LinkedHashMap<>();
+        environment.bindings().forEach((name, value) -> {
+            if (primitives.get(name) != value) {
+                definitions.put(name, value);
+            }
+        });
+
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(Paths.get(file)))) {
+            ImageOutput out = new ImageOutput(stream, environment, primitives);
+            out.writeInt(definitions.size());
+            for (Map.Entry<SymbolExpression, Expression> definition : definitions.entrySet()) {
+                out.writeSymbol(definition.getKey());
+                out.writeExpression(definition.getValue());
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Defines the global variables of an image written by {@link #saveImage}. Procedures from the image use the
+     * primitives and I/O ports of this interpreter.
+     */
+    public void loadImage(String file) {
+        try {
+            ImageInput in = new ImageInput(map(Paths.get(file)), environment, primitives);
+            for (int i = in.readInt(); i > 0; i--) {
+                environment.define(in.readSymbol(), in.readExpression());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a line from the input port, without the line terminator. Returns an empty string at the end of input.
+     */
+    public String readLine() {
+        try {
+            String line = in.readLine();
+            return line != null ? line : "";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps a whole file into memory for reading. The pages are loaded by the operating system as they are used and
+     * stay outside the heap; a single mapping is limited to files smaller than 2 GB.
+     */
+    static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private Expression evaluateAll(Iterator<Expression> reader) {
+        Expression result = Expression.none();
+        while (reader.hasNext()) {
+            result = evaluate(reader.next());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+package schemette;
+
+import schemette.expressions.Expression;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs scripts concurrently, each in an interpreter of its own. The pool keeps up to {@code size} interpreters
+ * ready, created by a factory that can also warm them up, for example by loading a library. A script takes one of
+ * them, or creates one if none is ready, and another one is prepared in the background while it runs. Interpreters
+ * are never reused, so scripts can't see each other's definitions.
+ * <p>
+ * Interpreters are prepared on threads of their own, so that warming them up doesn't wait behind queued scripts.
+ * Only a script that takes a ready interpreter starts preparing a replacement: the interpreters that are ready and
+ * the ones being prepared never number more than {@code size}, so none is built only to be thrown away. If the
+ * factory fails while preparing one, the next script that finds none ready starts preparing it again.
+ */
+public class InterpreterPool implements AutoCloseable {
+    private static final AtomicInteger POOLS = new AtomicInteger();
+
+    private final Supplier<Interpreter> factory;
+    private final BlockingQueue<Interpreter> ready;
+    private final ExecutorService executor;
+    private final ExecutorService preparer;
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public InterpreterPool(int size, Supplier<Interpreter> factory) {
+        this.factory = factory;
+        this.ready = new LinkedBlockingQueue<>(size);
+        int pool = POOLS.incrementAndGet();
+        this.executor = Executors.newFixedThreadPool(size, new InterpreterThreadFactory(pool, "thread"));
+        this.preparer = Executors.newFixedThreadPool(size, new InterpreterThreadFactory(pool, "preparer"));
+        for (int i = 0; i < size; i++) {
+            preparer.execute(this::prepare);
+        }
+    }
+
+    /**
+     * Creates a pool with one thread and one ready interpreter per available processor.
+     */
+    public InterpreterPool(Supplier<Interpreter> factory) {
+        this(Runtime.getRuntime().availableProcessors(), factory);
+    }
+
+    public <T> CompletableFuture<T> submit(Function<Interpreter, T> script) {
+        return CompletableFuture.supplyAsync(() -> script.apply(take()), executor);
+    }
+
+    /**
+     * Evaluates every expression of a source text and completes with the value of the last one.
+     */
+    public CompletableFuture<Expression> evaluate(String source) {
+        return submit(interpreter -> interpreter.evaluate(source));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        preparer.shutdown();
+    }
+
+    /**
+     * Takes a ready interpreter and starts preparing its replacement. When none is ready, the others are still being
+     * prepared or failed to be, so the script creates its own and only starts again the ones that failed.
+     */
+    private Interpreter take() {
+        Interpreter interpreter = ready.poll();
+        if (interpreter == null) {
+            if (failed.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                schedulePrepare();
+            }
+            return factory.get();
+        }
+        schedulePrepare();
+        return interpreter;
+    }
+
+    private void schedulePrepare() {
+        try {
+            preparer.execute(this::prepare);
+        } catch (RejectedExecutionException e) {
+            // The pool is closing, so no more interpreters are needed.
+        }
+    }
+
+    /**
+     * Prepares an interpreter, counting a failure instead of retrying it at once, since a factory that fails now
+     * would likely fail again right away.
+     */
+    private void prepare() {
+        Interpreter interpreter;
+        try {
+            interpreter = factory.get();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            return;
+        }
+        ready.offer(interpreter);
+    }
+
+    private static class InterpreterThreadFactory implements ThreadFactory {
+        private final int pool;
+        private final String role;
+        private final AtomicInteger threads = new AtomicInteger();
+
+        InterpreterThreadFactory(int pool, String role) {
+            this.pool = pool;
+            this.role = role;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, String.format("schemette-pool-%d-%s-%d", pool, role, threads.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package schemette;
+
+import schemette.expressions.Expression;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads the expressions of a UTF-8 encoded buffer, such as a memory-mapped file, in order while parsing them on the
+ * common fork-join pool. The calling thread only scans the bytes for places between top-level forms, following
+ * strings, atoms and {@code ;} comments the way {@link StreamingReader} does, and splits the text there into chunks
+ * that are each parsed by a {@link StreamingReader} of their own. A limited number of chunks are parsed ahead of the
+ * expression being returned, so memory use doesn't grow with the size of the input. Chunks are kept small since the
+ * forms parsed ahead are retained until they are returned, which costs more in garbage collection than larger
+ * chunks save in scheduling. Once the rest of the text fits in one chunk and nothing is parsed ahead, it is read on
+ * the calling thread a form at a time, so a small file is evaluated as it is read.
+ * <p>
+ * The characters that delimit forms are all ASCII, and bytes of that range never occur within a multi-byte UTF-8
+ * sequence, so the text doesn't have to be decoded to be split. A chunk that fails to parse keeps the expressions
+ * read before the error, and the error is thrown once every one of them has been returned, as it would be by a
+ * single reader.
+ */
+public class ParallelReader implements Iterator<Expression>, Closeable {
+    private static final int CHUNK_SIZE = Integer.getInteger("schemette.reader.chunk.size", 1 << 16);
+    private static final boolean PARALLEL = Runtime.getRuntime().availableProcessors() > 1;
+
+    private static final int DEFAULT = 0;
+    private static final int ATOM = 1;
+    private static final int STRING = 2;
+    private static final int COMMENT = 3;
+
+    private final ByteBuffer text;
+    private final int chunkSize;
+    private final int window = Math.max(2, 2 * ForkJoinPool.getCommonPoolParallelism());
+    private final Deque<ForkJoinTask<Chunk>> chunks = new ArrayDeque<>();
+    private Iterator<Expression> current = Collections.emptyIterator();
+    private int position;
+
+    ParallelReader(ByteBuffer text, int chunkSize) {
+        this.text = text;
+        this.chunkSize = chunkSize;
+        this.position = text.position();
+    }
+
+    /**
+     * Returns a reader of the expressions in a buffer. With a single processor there is nothing to parse the text in
+     * parallel with, so it is read by a {@link StreamingReader} as a whole.
+     */
+    public static ParallelReader of(ByteBuffer text) {
+        ParallelReader reader = new ParallelReader(text, CHUNK_SIZE);
+        if (!PARALLEL) {
+            reader.current = StreamingReader.of(text.duplicate());
+            reader.position = text.limit();
+        }
+        return reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            split();
+            if (current.hasNext()) {
+                break;
+            } else if (chunks.isEmpty()) {
+                return false;
+            }
+            current = chunks.poll().join();
+        }
+        return true;
+    }
+
+    @Override
+    public Expression next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Stops parsing the chunks that haven't been returned yet.
+     */
+    @Override
+    public void close() {
+        chunks.forEach(chunk -> chunk.cancel(false));
+        chunks.clear();
+    }
+
+    /**
+     * Starts parsing chunks until the window is full or the text has been split completely. When the rest of the
+     * text is a single chunk and nothing is parsed ahead, it is read on the calling thread a form at a time instead.
+     */
+    private void split() {
+        while (chunks.size() < window && position < text.limit()) {
+            int start = position;
+            position = boundary((int) Math.min((long) start + chunkSize, text.limit()));
+            ByteBuffer chunk = slice(start, position);
+            if (chunks.isEmpty() && position == text.limit()) {
+                current = StreamingReader.of(chunk);
+                return;
+            }
+            chunks.add(ForkJoinTask.adapt(() -> parse(chunk)).fork());
+        }
+    }
+
+    /**
+     * Returns the first place at or after a minimum position where a top-level form has just ended, or the end of
+     * the text. Scanning starts from the previous boundary, so it always begins outside of any form.
+     */
+    private int boundary(int minimum) {
+        int state = DEFAULT;
+        int depth = 0;
+        boolean quoted = false;
+        int limit = text.limit();
+        for (int i = position; i < limit; i++) {
+            int b = text.get(i) & 0xff;
+            boolean whitespace = b < 0x80 ? Character.isWhitespace(b) : isWhitespace(i);
+            if (state == STRING) {
+                if (b == '"') {
+                    state = DEFAULT;
+                }
+                continue;
+            } else if (state == COMMENT) {
+                if (b != '\n') {
+                    continue;
+                }
+                state = DEFAULT;
+            } else if (state == ATOM) {
+                if (!whitespace && !isDelimiter(b)) {
+                    continue;
+                }
+                state = DEFAULT;
+            }
+
+            if (whitespace) {
+                if (b >= 0x80) {
+                    i += 2;
+                }
+                if (depth == 0 && !quoted && i >= minimum) {
+                    return i + 1;
+                }
+            } else if (b == ';') {
+                state = COMMENT;
+            } else if (b == '(') {
+                depth++;
+                quoted = false;
+            } else if (b == ')') {
+                if (depth > 0 && --depth == 0 && i + 1 >= minimum) {
+                    return i + 1;
+                }
+            } else if (b == '\'') {
+                quoted = true;
+            } else {
+                state = b == '"' ? STRING : ATOM;
+                quoted = false;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Tells whether the multi-byte character starting at a position is whitespace. Only three byte sequences
+     * encode whitespace outside of ASCII.
+     */
+    private boolean isWhitespace(int i) {
+        int b = text.get(i) & 0xff;
+        if ((b & 0xf0) != 0xe0 || i + 2 >= text.limit()) {
+            return false;
+        }
+        int c = (b & 0x0f) << 12 | (text.get(i + 1) & 0x3f) << 6 | text.get(i + 2) & 0x3f;
+        return Character.isWhitespace(c);
+    }
+
+    private static boolean isDelimiter(int b) {
+        return b == '(' || b == ')' || b == '\'' || b == ';';
+    }
+
+    private ByteBuffer slice(int start, int end) {
+        ByteBuffer chunk = text.duplicate();
+        chunk.limit(end).position(start);
+        return chunk.slice();
+    }
+
+    private static Chunk parse(ByteBuffer chunk) {
+        List<Expression> expressions = new ArrayList<>();
+        try (StreamingReader reader = StreamingReader.of(chunk)) {
+            reader.forEachRemaining(expressions::add);
+        } catch (RuntimeException e) {
+            return new Chunk(expressions, e);
+        }
+        return new Chunk(expressions, null);
+    }
+
+    /**
+     * The expressions parsed from a chunk, followed by the error that stopped parsing it, if any, which is thrown
+     * in place of the next expression.
+     */
+    private static class Chunk implements Iterator<Expression> {
+        private final List<Expression> expressions;
+        private RuntimeException error;
+        private int index;
+
+        Chunk(List<Expression> expressions, RuntimeException error) {
+            this.expressions = expressions;
+            this.error = error;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < expressions.size() || error != null;
+        }
+
+        @Override
+        public Expression next() {
+            if (index < expressions.size()) {
+                return expressions.get(index++);
+            } else if (error != null) {
+                RuntimeException e = error;
+                error = null;
+                throw e;
+            }
+            throw new NoSuchElementException();
+        }
+    }
+}
@@ -2,19 +2,15 @@ package schemette;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import schemette.cons.Cons;
 import schemette.exception.UnmatchedDoubleQuotes;
 import schemette.exception.UnmatchedParenthesisExpection;
 import schemette.expressions.*;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
-import static schemette.cons.Cons.cons;
-import static schemette.cons.Cons.empty;
-
 public class Reader {
     private static int eatWhiteSpace(String input, int index) {
         while (index < input.length() && Character.isWhitespace(input.charAt(index))) {
@@ -61,9 +57,9 @@ public class Reader {
             return ImmutableList.of(Expression.none());
         }
         ImmutableList.Builder<Expression> builder = ImmutableList.builder();
-        Iterator<String> iterator = tokenize(input).iterator();
-        while (iterator.hasNext()) {
-            builder.addAll(parseSequence(iterator));
+        StreamingReader reader = StreamingReader.of(input);
+        while (reader.hasNext()) {
+            builder.add(reader.next());
         }
 
         return builder.build();
@@ -81,56 +77,145 @@ public class Reader {
                 });
     }
 
-    private static Cons<Expression> parseSequence(Iterator<String> i) {
-        Cons<Expression> result = empty();
-        while (i.hasNext()) {
-            String token = i.next();
-
-            if ("'".equals(token)) {
-                String nextToken = i.next();
-                if ("(".equals(nextToken)) {
-                    result = add(result, ListExpression.list(SymbolExpression.symbol("quote"), ListExpression.list(parseSequence(i))));
-                } else {
-                    result = add(result, ListExpression.list(SymbolExpression.symbol("quote"), symbolOrNumber(nextToken)));
-                }
-                continue;
-            } else if (")".equals(token)) {
-                return result;
+    public static Expression atom(String token) {
+        if (token.equals("#t") || token.equals("true")) {
+            return BooleanExpression.bool(true);
+        } else if (token.equals("#f") || token.equals("false")) {
+            return BooleanExpression.bool(false);
+        }
+
+        Expression number = parseNumber(token);
+        return number != null ? number : SymbolExpression.symbol(token);
+    }
+
+    /**
+     * Scans a token as an optionally signed integer literal, with an optional {@code #x}, {@code #d}, {@code #o}
+     * or {@code #b} radix prefix, or as a decimal literal. Integers are accumulated in a long and only handed to
+     * {@link BigInteger} once they overflow it. Returns {@code null} if the token is not a number, so symbols are
+     * classified without the cost of a {@link NumberFormatException}.
+     */
+    private static Expression parseNumber(String token) {
+        int length = token.length();
+        int i = 0;
+        int radix = 10;
+        if (length > 2 && token.charAt(0) == '#') {
+            radix = radix(token.charAt(1));
+            if (radix == -1) {
+                return null;
             }
+            i = 2;
+        }
 
-            if ("(".equals(token)) {
-                result = add(result, ListExpression.list(parseSequence(i)));
-            } else {
-                result = add(result, symbolOrNumber(token));
+        int start = i;
+        boolean negative = false;
+        char first = token.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i == length) {
+            return null;
+        }
+
+        // Accumulates negatively like Long.parseLong, so that Long.MIN_VALUE can be represented
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / radix;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(token.charAt(i), radix);
+            if (digit < 0) {
+                return radix == 10 ? parseDecimal(token, start) : null;
+            } else if (result < multiplyLimit || result * radix < limit + digit) {
+                return parseBignum(token, start, i, radix);
             }
+            result = result * radix - digit;
         }
 
-        return result;
+        return NumberExpression.number(negative ? result : -result);
     }
 
-    private static <T> Cons<T> add(Cons<T> list, T t) {
-        if (list.isEmpty()) {
-            return cons(t, empty());
-        } else {
-            list.append(cons(t, empty()));
+    /**
+     * Parses an integer literal that doesn't fit in a long, once the digits up to a position are known to be valid.
+     */
+    private static Expression parseBignum(String token, int start, int i, int radix) {
+        for (; i < token.length(); i++) {
+            if (Character.digit(token.charAt(i), radix) < 0) {
+                return radix == 10 ? parseDecimal(token, start) : null;
+            }
         }
-
-        return list;
+        return NumberExpression.number(new BigInteger(token.substring(start), radix));
     }
 
-    private static Expression symbolOrNumber(String token) {
-        if (token.startsWith("\"")) {
-            return StringExpression.string(token.substring(1, token.length() - 1));
-        } else if (token.equals("#t") || token.equals("true")) {
-            return BooleanExpression.bool(true);
-        } else if (token.equals("#f") || token.equals("false")) {
-            return BooleanExpression.bool(false);
-        } else {
-            try {
-                return NumberExpression.number(Long.parseLong(token));
-            } catch (NumberFormatException e) {
-                return SymbolExpression.symbol(token);
+    /**
+     * Parses a decimal literal, such as {@code 1.5}, {@code -.5}, {@code 1.} or {@code 6.02e23}, or one of
+     * {@code +inf.0}, {@code -inf.0} and {@code +nan.0}. The token is checked before it is given to
+     * {@link Double#parseDouble}, which also accepts forms that aren't Scheme numbers.
+     */
+    private static Expression parseDecimal(String token, int start) {
+        String literal = token.substring(start);
+        switch (literal) {
+            case "+inf.0":
+                return NumberExpression.number(Double.POSITIVE_INFINITY);
+            case "-inf.0":
+                return NumberExpression.number(Double.NEGATIVE_INFINITY);
+            case "+nan.0":
+            case "-nan.0":
+                return NumberExpression.number(Double.NaN);
+        }
+
+        int length = literal.length();
+        int i = 0;
+        if (literal.charAt(i) == '-' || literal.charAt(i) == '+') {
+            i++;
+        }
+        int digits = 0;
+        for (; i < length && isDigit(literal.charAt(i)); i++) {
+            digits++;
+        }
+        if (i < length && literal.charAt(i) == '.') {
+            for (i++; i < length && isDigit(literal.charAt(i)); i++) {
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (i < length && (literal.charAt(i) == 'e' || literal.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (literal.charAt(i) == '-' || literal.charAt(i) == '+')) {
+                i++;
             }
+            int exponent = i;
+            while (i < length && isDigit(literal.charAt(i))) {
+                i++;
+            }
+            if (i == exponent) {
+                return null;
+            }
+        }
+        return i == length ? NumberExpression.number(Double.parseDouble(literal)) : null;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int radix(char prefix) {
+        switch (prefix) {
+            case 'x':
+            case 'X':
+                return 16;
+            case 'd':
+            case 'D':
+                return 10;
+            case 'o':
+            case 'O':
+                return 8;
+            case 'b':
+            case 'B':
+                return 2;
+            default:
+                return -1;
         }
     }
 }
@@ -1,23 +1,34 @@
 package schemette;
 
-import schemette.environment.DefaultEnvironment;
-import schemette.environment.Environment;
 import schemette.expressions.Expression;
 
 import java.io.*;
 import java.util.stream.IntStream;
 
+/**
+ * The read-eval-print loop. Arguments are handled in order before the loop starts: {@code --image file} loads an
+ * image, {@code --save-image file} saves one and exits, and any other argument is a source file to load.
+ */
 public class Repl {
-    public static final Environment ENV = DefaultEnvironment.newInstance();
-    public static final PrintStream OUTPUT_STREAM = System.out;
-    public static final InputStream INPUT_STREAM = System.in;
-
     public static void main(String[] args) {
-        repl(INPUT_STREAM, OUTPUT_STREAM);
+        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(System.in));
+        Interpreter interpreter = new Interpreter(bufferedReader, System.out);
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--image")) {
+                interpreter.loadImage(args[++i]);
+            } else if (args[i].equals("--save-image")) {
+                interpreter.saveImage(args[++i]);
+                return;
+            } else {
+                interpreter.load(args[i]);
+            }
+        }
+
+        repl(interpreter, bufferedReader, System.out);
     }
 
-    private static void repl(InputStream in, PrintStream out) {
-        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(in));
+    private static void repl(Interpreter interpreter, BufferedReader bufferedReader, PrintStream out) {
 
         String input = "";
 
@@ -28,7 +39,7 @@ public class Repl {
                 input += readLine(bufferedReader);
                 if (completeExpression(input)) {
                     Reader.read(input).stream()
-                            .forEach(e -> out.print(print(Evaluator.evaluate(e, ENV))));
+                            .forEach(e -> out.print(print(interpreter.evaluate(e))));
 
                     input = "";
                 }
@@ -0,0 +1,246 @@
+package schemette;
+
+import schemette.cons.Cons;
+import schemette.exception.UnmatchedDoubleQuotes;
+import schemette.exception.UnmatchedParenthesisExpection;
+import schemette.expressions.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads expressions one top-level datum at a time straight from a character stream, without materializing the
+ * source text or its tokens. Only the datum being read is held in memory, so arbitrarily large files can be read
+ * and evaluated form by form.
+ */
+public class StreamingReader implements Iterator<Expression>, Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final java.io.Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder token = new StringBuilder();
+    private int position;
+    private int limit;
+
+    public StreamingReader(java.io.Reader in) {
+        this.in = in;
+    }
+
+    public static StreamingReader of(CharSequence input) {
+        return new StreamingReader(new CharSequenceReader(input));
+    }
+
+    /**
+     * Reads UTF-8 encoded text from a buffer, such as a memory-mapped file, decoding it a chunk at a time as it is
+     * read.
+     */
+    public static StreamingReader of(ByteBuffer input) {
+        return new StreamingReader(new DecodingReader(input));
+    }
+
+    @Override
+    public boolean hasNext() {
+        skipWhitespaceAndComments();
+        return peek() != -1;
+    }
+
+    @Override
+    public Expression next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return readDatum();
+    }
+
+    public Stream<Expression> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Expression readDatum() {
+        skipWhitespaceAndComments();
+        int c = read();
+        switch (c) {
+            case -1:
+                throw new UnmatchedParenthesisExpection("Missing closing parenthesis ')'");
+            case '(':
+                return ListExpression.list(readList());
+            case ')':
+                throw new UnmatchedParenthesisExpection("Too many closed parenthesis ')'");
+            case '\'':
+                return ListExpression.list(SymbolExpression.symbol("quote"), readDatum());
+            case '"':
+                return readString();
+            case '#':
+                if (peek() == '(') {
+                    read();
+                    return VectorExpression.vector(readList().stream().toArray(Expression[]::new));
+                }
+                return readAtom('#');
+            default:
+                return readAtom((char) c);
+        }
+    }
+
+    private Cons<Expression> readList() {
+        Cons.Builder<Expression> result = Cons.builder();
+        while (true) {
+            skipWhitespaceAndComments();
+            int c = peek();
+            if (c == ')') {
+                read();
+                return result.build();
+            } else if (c == -1) {
+                throw new UnmatchedParenthesisExpection("Missing closing parenthesis ')'");
+            }
+
+            result.add(readDatum());
+        }
+    }
+
+    private Expression readString() {
+        token.setLength(0);
+        for (int c = read(); c != '"'; c = read()) {
+            if (c == -1) {
+                throw new UnmatchedDoubleQuotes("");
+            }
+            token.append((char) c);
+        }
+        return StringExpression.string(token.toString().replace("\\n", "\n"));
+    }
+
+    private Expression readAtom(char first) {
+        token.setLength(0);
+        token.append(first);
+        for (int c = peek(); c != -1 && !isDelimiter(c); c = peek()) {
+            token.append((char) read());
+        }
+        return Reader.atom(token.toString());
+    }
+
+    private void skipWhitespaceAndComments() {
+        for (int c = peek(); c != -1; c = peek()) {
+            if (c == ';') {
+                while (c != -1 && c != '\n') {
+                    read();
+                    c = peek();
+                }
+            } else if (Character.isWhitespace(c)) {
+                read();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isDelimiter(int c) {
+        return Character.isWhitespace(c) || c == '(' || c == ')' || c == '\'' || c == ';';
+    }
+
+    private int peek() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() {
+        try {
+            int n = in.read(buffer, 0, buffer.length);
+            while (n == 0) {
+                n = in.read(buffer, 0, buffer.length);
+            }
+            position = 0;
+            limit = Math.max(n, 0);
+            return n > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a buffer that holds the whole input, so the end of the buffer is the end of the input.
+     */
+    private static class DecodingReader extends java.io.Reader {
+        private final ByteBuffer input;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private boolean flushed;
+
+        DecodingReader(ByteBuffer input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (flushed) {
+                return -1;
+            }
+            CharBuffer output = CharBuffer.wrap(buffer, offset, length);
+            decoder.decode(input, output, true);
+            if (!input.hasRemaining() && decoder.flush(output).isUnderflow()) {
+                flushed = true;
+            }
+            int n = output.position() - offset;
+            return n == 0 && flushed ? -1 : n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class CharSequenceReader extends java.io.Reader {
+        private final CharSequence input;
+        private int position;
+
+        CharSequenceReader(CharSequence input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= input.length()) {
+                return -1;
+            }
+            int n = Math.min(length, input.length() - position);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = input.charAt(position++);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -25,15 +25,15 @@ public class Cons<T> implements Iterable<T> {
     }
 
     public static <T> Cons<T> copyOf(Iterable<T> items) {
-        Cons<T> result = empty();
+        Builder<T> builder = builder();
         for (T t : items) {
-            if (result == empty()) {
-                result = cons(t, empty());
-            } else {
-                result.append(cons(t, empty()));
-            }
+            builder.add(t);
         }
-        return result;
+        return builder.build();
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
     }
 
     public T car() {
@@ -61,7 +61,11 @@ public class Cons<T> implements Iterable<T> {
     }
 
     public long size() {
-        return stream().count();
+        long size = 0;
+        for (Cons<T> cons = this; !cons.isEmpty(); cons = cons.cdr) {
+            size++;
+        }
+        return size;
     }
 
     private static final Cons<Object> EMPTY = new Empty();
@@ -99,7 +103,7 @@ public class Cons<T> implements Iterable<T> {
     }
 
     @Override public Spliterator<T> spliterator() {
-        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.NONNULL);
+        return new ConsSpliterator<>(this);
     }
 
     public Stream<T> stream() {
@@ -107,39 +111,23 @@ public class Cons<T> implements Iterable<T> {
     }
 
     public void append(Cons<T> tail) {
-        if (cdr == empty()) {
-            setCdr(tail);
-        } else {
-            cdr.append(tail);
+        Cons<T> last = this;
+        while (last.cdr != empty()) {
+            last = last.cdr;
         }
+        last.setCdr(tail);
     }
 
     public List<T> toList() {
         return stream().collect(Collectors.toList());
     }
 
-    public static <T> Collector<T, Cons<T>, Cons<T>> collector() {
+    public static <T> Collector<T, Builder<T>, Cons<T>> collector() {
         return Collector.of(
-                () -> cons(null, empty()),
-                (accumulator, e) -> {
-                    if (accumulator.car() == null) {
-                        accumulator.setCar(e);
-                    } else {
-                        accumulator.append(cons(e, empty()));
-                    }
-                },
-                (a, b) -> {
-                    a.append(b);
-                    return a;
-                },
-                (accumulator) -> {
-                    if (accumulator.car() == null) {
-                        return empty();
-                    } else {
-                        return accumulator;
-                    }
-                });
-
+                Cons::builder,
+                Builder::add,
+                Builder::addAll,
+                Builder::build);
     }
 
     public String toString() {
@@ -159,16 +147,137 @@ public class Cons<T> implements Iterable<T> {
             return false;
         }
 
-        Cons cons = (Cons) o;
-
-        return car.equals(cons.car) && cdr.equals(cons.cdr);
+        Cons<?> a = this;
+        Cons<?> b = (Cons<?>) o;
+        while (a != b) {
+            if (a.isEmpty() || b.isEmpty() || !Objects.equals(a.car, b.car)) {
+                return false;
+            }
+            a = a.cdr;
+            b = b.cdr;
+        }
 
+        return true;
     }
 
     @Override
     public int hashCode() {
-        int result = car.hashCode();
-        result = 31 * result + cdr.hashCode();
+        int result = 1;
+        for (Cons<T> cons = this; !cons.isEmpty(); cons = cons.cdr) {
+            result = 31 * result + Objects.hashCode(cons.car);
+        }
         return result;
     }
+
+    /**
+     * Accumulates a list front to back, keeping a pointer to the last cell so that each element is added in
+     * constant time.
+     */
+    public static class Builder<T> {
+        private Cons<T> head = empty();
+        private Cons<T> last;
+
+        private Builder() {
+        }
+
+        public Builder<T> add(T t) {
+            Cons<T> cell = cons(t, empty());
+            if (last == null) {
+                head = cell;
+            } else {
+                last.cdr = cell;
+            }
+            last = cell;
+            return this;
+        }
+
+        public Builder<T> addAll(Builder<T> other) {
+            if (other.last != null) {
+                if (last == null) {
+                    head = other.head;
+                } else {
+                    last.cdr = other.head;
+                }
+                last = other.last;
+            }
+            return this;
+        }
+
+        public Cons<T> build() {
+            return head;
+        }
+    }
+
+    /**
+     * Splits off batches of growing size into arrays, the same way the spliterator of java.util.LinkedList does.
+     * The size is counted on first request, since cells can be relinked with setCdr at any time.
+     */
+    private static class ConsSpliterator<T> implements Spliterator<T> {
+        private static final int BATCH_UNIT = 1 << 10;
+        private static final int MAX_BATCH = 1 << 25;
+
+        private Cons<T> current;
+        private long size = -1;
+        private int batch;
+
+        ConsSpliterator(Cons<T> head) {
+            this.current = head;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (current.isEmpty()) {
+                return false;
+            }
+            T next = current.car;
+            current = current.cdr;
+            if (size > 0) {
+                size--;
+            }
+            action.accept(next);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Cons<T> cons = current;
+            current = empty();
+            size = 0;
+            for (; !cons.isEmpty(); cons = cons.cdr) {
+                action.accept(cons.car);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long remaining = estimateSize();
+            if (remaining <= 1) {
+                return null;
+            }
+
+            int n = (int) Math.min(Math.min(batch + BATCH_UNIT, remaining), MAX_BATCH);
+            Object[] items = new Object[n];
+            int i = 0;
+            while (i < n) {
+                items[i++] = current.car;
+                current = current.cdr;
+            }
+            size = remaining - i;
+            batch = i;
+            return Spliterators.spliterator(items, 0, i, Spliterator.ORDERED);
+        }
+
+        @Override
+        public long estimateSize() {
+            if (size < 0) {
+                size = current.size();
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
 }
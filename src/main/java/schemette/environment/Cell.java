@@ -0,0 +1,27 @@
+package schemette.environment;
+
+import schemette.expressions.Expression;
+import schemette.expressions.SymbolExpression;
+
+/**
+ * The binding of a name in an environment. A cell is created by the first definition of the name and stays the
+ * same for as long as the environment exists, so code that refers to the name can hold on to the cell instead of
+ * looking the name up again.
+ */
+public final class Cell {
+    public final SymbolExpression name;
+    private Expression value;
+
+    Cell(SymbolExpression name, Expression value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public Expression get() {
+        return value;
+    }
+
+    public void set(Expression value) {
+        this.value = value;
+    }
+}
@@ -1,146 +1,135 @@
 package schemette.environment;
 
 import com.google.common.collect.ImmutableMap;
-import schemette.Repl;
+import schemette.Interpreter;
 import schemette.cons.Cons;
 import schemette.expressions.Expression;
-import schemette.expressions.NumberExpression;
+import schemette.expressions.ProcedureExpression;
 import schemette.expressions.SymbolExpression;
+import schemette.expressions.TailCall;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.function.BiPredicate;
-import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
-import static schemette.Evaluator.evaluate;
 import static schemette.Reader.read;
-import static schemette.cons.Cons.cons;
 import static schemette.cons.Cons.empty;
 import static schemette.expressions.BooleanExpression.bool;
 import static schemette.expressions.ListExpression.Nil.nil;
 import static schemette.expressions.ListExpression.list;
 import static schemette.expressions.ProcedureExpression.procedure;
+import static schemette.expressions.ProcedureExpression.procedure1;
+import static schemette.expressions.ProcedureExpression.procedure2;
+import static schemette.expressions.ProcedureExpression.trampoline;
 import static schemette.expressions.SymbolExpression.symbol;
 
 public class DefaultEnvironment {
+    private static final SymbolExpression APPLY = symbol("apply");
+
+    /**
+     * Both compare their arguments by contents. They are told apart by {@code make-hash-table}, which takes
+     * {@code eq?} to ask for a table that compares keys by identity.
+     */
+    static final ProcedureExpression EQ =
+            procedure(args -> bool(satisfiesTransitivePredicateGeneric(args, (a, b) -> a.equals(b))));
+    static final ProcedureExpression EQUAL =
+            procedure(args -> bool(satisfiesTransitivePredicateGeneric(args, (a, b) -> a.equals(b))));
+
     private static final ImmutableMap<SymbolExpression, Expression> PRIMITIVES = ImmutableMap.<SymbolExpression, Expression>builder()
-            .put(symbol("+"),
-                    procedure(args -> longFunction(args, (a, b) -> a + b)))
-            .put(symbol("-"),
-                    procedure(args -> longFunction(args, (a, b) -> a - b)))
-            .put(symbol("/"),
-                    procedure(args -> longFunction(args, (a, b) -> a / b)))
-            .put(symbol("*"),
-                    procedure(args -> longFunction(args, (a, b) -> a * b)))
-            .put(symbol("="),
-                    procedure(args -> bool(satisfiesTransitivePredicateGeneric(args, (a, b) -> a.equals(b)))))
-            .put(symbol("eq?"),
-                    procedure(args -> bool(satisfiesTransitivePredicateGeneric(args, (a, b) -> a.equals(b)))))
-            .put(symbol(">"),
-                    procedure(args -> bool(satisfiesTransitivePredicate(args, (a, b) -> a > b))))
-            .put(symbol("<"),
-                    procedure(args -> bool(satisfiesTransitivePredicate(args, (a, b) -> a < b))))
-            .put(symbol(">="),
-                    procedure(args -> bool(satisfiesTransitivePredicate(args, (a, b) -> a >= b))))
-            .put(symbol("<="),
-                    procedure(args -> bool(satisfiesTransitivePredicate(args, (a, b) -> a <= b))))
+            .put(symbol("+"), NumericPrimitives.ADD)
+            .put(symbol("-"), NumericPrimitives.SUBTRACT)
+            .put(symbol("/"), NumericPrimitives.DIVIDE)
+            .put(symbol("*"), NumericPrimitives.MULTIPLY)
+            .put(symbol("="), NumericPrimitives.EQUAL)
+            .put(symbol("eq?"), EQ)
+            .put(symbol("equal?"), EQUAL)
+            .put(symbol(">"), NumericPrimitives.GREATER)
+            .put(symbol("<"), NumericPrimitives.LESS)
+            .put(symbol(">="), NumericPrimitives.GREATER_OR_EQUAL)
+            .put(symbol("<="), NumericPrimitives.LESS_OR_EQUAL)
+            .put(symbol("exact?"), NumericPrimitives.IS_EXACT)
+            .put(symbol("inexact?"), NumericPrimitives.IS_INEXACT)
+            .put(symbol("exact->inexact"), NumericPrimitives.EXACT_TO_INEXACT)
+            .put(symbol("inexact->exact"), NumericPrimitives.INEXACT_TO_EXACT)
             .put(symbol("not"),
-                    procedure(args -> bool(!args.car().bool().value)))
-            .put(symbol("display"),
-                    procedure(args -> {
-                        Repl.OUTPUT_STREAM.print(args.stream().map(Expression::print).collect(Collectors.joining(" ")));
-                        return Expression.none();
-                    }))
+                    procedure1(a -> bool(!a.bool().value)))
             .put(symbol("boolean?"),
-                    procedure(args -> bool(args.car().isBoolean())))
+                    procedure1(a -> bool(a.isBoolean())))
             .put(symbol("list?"),
-                    procedure(args -> bool(args.car().isList())))
+                    procedure1(a -> bool(a.isList())))
             .put(symbol("number?"),
-                    procedure(args -> bool(args.car().isNumber())))
+                    procedure1(a -> bool(a.isNumber())))
             .put(symbol("procedure?"),
-                    procedure(args -> bool(args.car().isProcedure())))
+                    procedure1(a -> bool(a.isProcedure())))
             .put(symbol("string?"),
-                    procedure(args -> bool(args.car().isString())))
+                    procedure1(a -> bool(a.isString())))
             .put(symbol("symbol?"),
-                    procedure(args -> bool(args.car().isSymbol())))
+                    procedure1(a -> bool(a.isSymbol())))
             .put(symbol("null?"),
-                    procedure(args -> bool(args.car().isList() && args.car().list().value.isEmpty())))
-            .put(symbol("apply"),
-                    procedure(args -> args.car().procedure().lambda.apply(args.cadr().list().value)))
+                    procedure1(a -> bool(a.isList() && a.list().value.isEmpty())))
+            .put(APPLY,
+                    procedure2((f, args) -> apply(f.procedure(), args.list().value)))
             .put(symbol("car"),
-                    procedure(args -> args.car().list().value.car()))
+                    procedure1(a -> a.list().value.car()))
             .put(symbol("cdr"),
-                    procedure(args -> list(args.car().list().value.cdr())))
+                    procedure1(a -> list(a.list().value.cdr())))
             .put(symbol("cons"),
-                    procedure(args -> list(toList(args))))
+                    procedure2((a, b) -> list(cons(a, b))))
             .put(symbol("set-car!"),
-                    procedure(args -> {
-                        args.car().list().value.setCar(args.cadr());
+                    procedure2((a, b) -> {
+                        a.list().value.setCar(b);
                         return Expression.none();
                     }))
             .put(symbol("set-cdr!"),
-                    procedure(args -> {
-                        args.car().list().value.setCdr(args.cadr().list().value);
-                        return Expression.none();
-                    }))
-            .put(symbol("read"),
-                    procedure(args -> read(args.isEmpty() ? readLine() : args.car().print()).iterator().next()))
-            .put(symbol("error"),
-                    procedure(args -> {
-                        Repl.OUTPUT_STREAM.println(args.stream().map(Expression::print).collect(Collectors.joining(" ")));
+                    procedure2((a, b) -> {
+                        a.list().value.setCdr(b.list().value);
                         return Expression.none();
                     }))
-            .put(symbol("eval"),
-                    procedure(args -> evaluate(args.car(), Repl.ENV)))
-            .put(symbol("load"),
-                    procedure(args ->
-                        StreamSupport.stream(read(loadFile(args.car().print())).spliterator(), false)
-                                .map(e -> evaluate(e, Repl.ENV))
-                                .reduce(Expression.none(), (e1, e2) -> e2)))
+            .put(symbol("vector"), VectorPrimitives.VECTOR)
+            .put(symbol("make-vector"), VectorPrimitives.MAKE_VECTOR)
+            .put(symbol("vector?"), VectorPrimitives.IS_VECTOR)
+            .put(symbol("vector-length"), VectorPrimitives.VECTOR_LENGTH)
+            .put(symbol("vector-ref"), VectorPrimitives.VECTOR_REF)
+            .put(symbol("vector-set!"), VectorPrimitives.VECTOR_SET)
+            .put(symbol("vector->list"), VectorPrimitives.VECTOR_TO_LIST)
+            .put(symbol("list->vector"), VectorPrimitives.LIST_TO_VECTOR)
+            .put(symbol("make-hash-table"), HashTablePrimitives.MAKE_HASH_TABLE)
+            .put(symbol("hash-table?"), HashTablePrimitives.IS_HASH_TABLE)
+            .put(symbol("hash-table-size"), HashTablePrimitives.HASH_TABLE_SIZE)
+            .put(symbol("hash-table-ref"), HashTablePrimitives.HASH_TABLE_REF)
+            .put(symbol("hash-table-ref/default"), HashTablePrimitives.HASH_TABLE_REF_DEFAULT)
+            .put(symbol("hash-table-set!"), HashTablePrimitives.HASH_TABLE_SET)
+            .put(symbol("hash-table-delete!"), HashTablePrimitives.HASH_TABLE_DELETE)
+            .put(symbol("hash-table-contains?"), HashTablePrimitives.HASH_TABLE_CONTAINS)
+            .put(symbol("hash-table-update!"), HashTablePrimitives.HASH_TABLE_UPDATE)
+            .put(symbol("hash-table-update!/default"), HashTablePrimitives.HASH_TABLE_UPDATE_DEFAULT)
+            .put(symbol("hash-table-walk"), HashTablePrimitives.HASH_TABLE_WALK)
+            .put(symbol("hash-table-keys"), HashTablePrimitives.HASH_TABLE_KEYS)
+            .put(symbol("hash-table-values"), HashTablePrimitives.HASH_TABLE_VALUES)
+            .put(symbol("future"), ParallelPrimitives.FUTURE)
+            .put(symbol("touch"), ParallelPrimitives.TOUCH)
+            .put(symbol("pmap"), ParallelPrimitives.PMAP)
+            .put(symbol("preduce"), ParallelPrimitives.PREDUCE)
             .build();
 
-    private static String readLine() {
-        try {
-            InputStreamReader reader = new InputStreamReader(Repl.INPUT_STREAM);
-            StringBuilder sb = new StringBuilder();
-            for (int c = reader.read(); c != -1 && c != '\n' ; c = reader.read()) {
-                sb.append((char) c);
-            }
-
-            return sb.toString();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * Defers compound procedures to the caller's trampoline, so that apply in tail position is a proper tail call.
+     */
+    private static Expression apply(ProcedureExpression procedure, Cons<Expression> args) {
+        if (procedure.isCompound()) {
+            return new TailCall(procedure, args.stream().toArray(Expression[]::new));
         }
+        return procedure.invoke(args);
     }
 
-    private static String loadFile(String print) {
-        try {
-            return Files.lines(Paths.get(print))
-                    .collect(Collectors.joining("\n"));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private static Cons<Expression> cons(Expression car, Expression cdr) {
+        if (cdr == nil()) {
+            return Cons.cons(car, empty());
         }
-    }
-
-    private static Cons<Expression> toList(Cons<Expression> args) {
-        if (args.cadr() == nil()) {
-            return cons(args.car(), empty());
-        }
-
-        return cons(args.car(), args.cadr().list().value);
-    }
 
-    private static boolean satisfiesTransitivePredicate(Cons<Expression> args, BiPredicate<Long, Long> predicate) {
-        Iterator<Expression> iterator = args.iterator();
-        return args.stream()
-                .skip(1)
-                .allMatch(e -> predicate.test(iterator.next().number().value, e.number().value));
+        return Cons.cons(car, cdr.list().value);
     }
 
     private static boolean satisfiesTransitivePredicateGeneric(Cons<Expression> args, BiPredicate<Expression, Expression> predicate) {
@@ -150,15 +139,65 @@ public class DefaultEnvironment {
                 .allMatch(e -> predicate.test(iterator.next(), e));
     }
 
+    /**
+     * Returns the global environment of a new {@link Interpreter} on the standard input and output.
+     */
     public static Environment newInstance() {
-        return new Environment(new HashMap<>(PRIMITIVES));
+        return new Interpreter().environment();
     }
 
-    private static NumberExpression longFunction(Cons<Expression> args, BinaryOperator<Long> accumulator) {
-        return args.stream()
-                .map(a -> a.number().value)
-                .reduce(accumulator)
-                .map(NumberExpression::number)
-                .get();
+    /**
+     * Returns the primitives of a global environment whose I/O and {@code eval} primitives are bound to the given
+     * interpreter.
+     */
+    public static Map<SymbolExpression, Expression> primitives(Interpreter interpreter) {
+        Map<SymbolExpression, Expression> bindings = new HashMap<>(PRIMITIVES);
+        bindings.put(symbol("display"),
+                procedure(args -> {
+                    interpreter.out().print(args.stream().map(Expression::print).collect(Collectors.joining(" ")));
+                    return Expression.none();
+                }));
+        bindings.put(symbol("read"),
+                procedure(args -> read(args.isEmpty() ? interpreter.readLine() : args.car().print()).iterator().next()));
+        bindings.put(symbol("error"),
+                procedure(args -> {
+                    interpreter.out().println(args.stream().map(Expression::print).collect(Collectors.joining(" ")));
+                    return Expression.none();
+                }));
+        bindings.put(symbol("eval"),
+                procedure1(interpreter::evaluate));
+        bindings.put(symbol("load"),
+                procedure1(file -> interpreter.load(file.print())));
+        bindings.put(symbol("load-data"),
+                procedure(args -> loadData(interpreter, args)));
+        return ImmutableMap.copyOf(bindings);
+    }
+
+    /**
+     * {@code (load-data file)} returns the expressions of a file as a list of data. {@code (load-data file proc)}
+     * instead calls {@code proc} on each one in order as it is read, so files larger than the heap can be processed.
+     */
+    private static Expression loadData(Interpreter interpreter, Cons<Expression> args) {
+        String file = args.car().print();
+        if (args.cdr().isEmpty()) {
+            Cons.Builder<Expression> data = Cons.builder();
+            interpreter.loadData(file, data::add);
+            return list(data.build());
+        }
+        ProcedureExpression procedure = args.cadr().procedure();
+        interpreter.loadData(file, datum -> trampoline(procedure.invoke1(datum)));
+        return Expression.none();
+    }
+
+    /**
+     * Returns the primitive bound to a name in new environments, if it can be called directly in place of a
+     * lookup. {@code apply} is left out since it may return a tail call.
+     */
+    public static ProcedureExpression inlinablePrimitive(SymbolExpression name) {
+        Expression primitive = PRIMITIVES.get(name);
+        if (primitive == null || name == APPLY) {
+            return null;
+        }
+        return primitive.procedure();
     }
 }
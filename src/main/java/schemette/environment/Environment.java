@@ -1,50 +1,128 @@
 package schemette.environment;
 
+import com.google.common.collect.Maps;
 import schemette.exception.VariableNotDefinedException;
 import schemette.expressions.Expression;
 import schemette.expressions.SymbolExpression;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * A chain of frames binding variables to values. Named bindings are kept in concurrent maps, so that tasks started by
+ * {@code future} or {@code pmap} can look up globals while another thread defines new ones.
+ */
 public class Environment {
-    public final Map<SymbolExpression, Expression> bindings;
+    private static volatile int shadowingDefinitions;
+
+    private final Map<SymbolExpression, Cell> cells;
+    public final Expression[] slots;
     public final Environment enclosingEnvironment;
 
-    private Environment(Map<SymbolExpression, Expression> bindings, Environment enclosingEnvironment) {
-        this.bindings = bindings;
+    private Environment(Map<SymbolExpression, Cell> cells, Expression[] slots, Environment enclosingEnvironment) {
+        this.cells = cells;
+        this.slots = slots;
         this.enclosingEnvironment = enclosingEnvironment;
     }
 
     public Environment(Map<SymbolExpression, Expression> bindings) {
-        this(bindings, null);
+        this(cells(bindings), null, null);
     }
 
     public Environment extend(Map<SymbolExpression, Expression> bindings) {
-        return new Environment(bindings, this);
+        return new Environment(cells(bindings), null, this);
+    }
+
+    /**
+     * Extends this environment with a procedure frame whose variables were resolved to slot indexes by the
+     * {@link Scope} analysis. Frames like this are skipped by the symbolic {@link #lookup} and {@link #set}.
+     */
+    public Environment extend(Expression[] slots) {
+        return new Environment(null, slots, this);
     }
 
+    public Environment ancestor(int depth) {
+        Environment env = this;
+        for (int i = 0; i < depth; i++) {
+            env = env.enclosingEnvironment;
+        }
+        return env;
+    }
+
+    /**
+     * Returns the cell a name is bound to in this environment or the nearest enclosing one that binds it, or
+     * {@code null} if the name is not bound. The cell found for a name stays the same until
+     * {@link #shadowingDefinitions()} changes.
+     */
+    public Cell lookupCell(SymbolExpression symbol) {
+        for (Environment env = this; env != null; env = env.enclosingEnvironment) {
+            if (env.cells != null) {
+                Cell cell = env.cells.get(symbol);
+                if (cell != null) {
+                    return cell;
+                }
+            }
+        }
+        return null;
+    }
 
     public Expression lookup(SymbolExpression symbol) {
-        if (bindings.containsKey(symbol)) {
-            return bindings.get(symbol);
-        } else if (enclosingEnvironment != null) {
-            return enclosingEnvironment.lookup(symbol);
+        Cell cell = lookupCell(symbol);
+        if (cell == null) {
+            throw new VariableNotDefinedException(symbol.value);
         }
-        throw new VariableNotDefinedException(symbol.value);
+        return cell.get();
     }
 
     public void set(SymbolExpression symbol, Expression value) {
-        if (bindings.containsKey(symbol)) {
-            bindings.put(symbol, value);
-        } else if (enclosingEnvironment != null) {
-            enclosingEnvironment.set(symbol, value);
-        } else {
+        Cell cell = lookupCell(symbol);
+        if (cell == null) {
             throw new VariableNotDefinedException(symbol.value);
         }
+        cell.set(value);
     }
 
     public void define(SymbolExpression symbol, Expression value) {
-        bindings.put(symbol, value);
+        Cell cell = cells.get(symbol);
+        if (cell != null) {
+            cell.set(value);
+            return;
+        }
+
+        // Tasks started by future or pmap may define the same name at once, and all of them must end up with the
+        // one cell that code referring to the name holds on to
+        cell = cells.putIfAbsent(symbol, new Cell(symbol, value));
+        if (cell != null) {
+            cell.set(value);
+            return;
+        }
+        if (enclosingEnvironment != null && enclosingEnvironment.lookupCell(symbol) != null) {
+            synchronized (Environment.class) {
+                shadowingDefinitions++;
+            }
+        }
+    }
+
+    /**
+     * Counts the definitions that have hidden a binding of an enclosing environment, which is the only way the
+     * cell a name resolves to can change.
+     */
+    public static int shadowingDefinitions() {
+        return shadowingDefinitions;
+    }
+
+    private static Map<SymbolExpression, Cell> cells(Map<SymbolExpression, Expression> bindings) {
+        Map<SymbolExpression, Cell> cells = new ConcurrentHashMap<>();
+        bindings.forEach((name, value) -> cells.put(name, new Cell(name, value)));
+        return cells;
+    }
+
+    /**
+     * Returns a view of the named bindings made in this environment itself, or {@code null} for a procedure frame.
+     */
+    public Map<SymbolExpression, Expression> bindings() {
+        return cells != null ? Maps.transformValues(cells, Cell::get) : null;
     }
 
     @Override
@@ -55,7 +133,10 @@ public class Environment {
 
         Environment that = (Environment) o;
 
-        if (bindings != null ? !bindings.equals(that.bindings) : that.bindings != null) {
+        if (cells != null ? !bindings().equals(that.bindings()) : that.cells != null) {
+            return false;
+        }
+        if (!Arrays.equals(slots, that.slots)) {
             return false;
         }
         if (enclosingEnvironment != null ? !enclosingEnvironment.equals(that.enclosingEnvironment) : that.enclosingEnvironment != null) {
@@ -67,7 +148,8 @@ public class Environment {
 
     @Override
     public int hashCode() {
-        int result = bindings != null ? bindings.hashCode() : 0;
+        int result = cells != null ? bindings().hashCode() : 0;
+        result = 31 * result + Arrays.hashCode(slots);
         result = 31 * result + (enclosingEnvironment != null ? enclosingEnvironment.hashCode() : 0);
         return result;
     }
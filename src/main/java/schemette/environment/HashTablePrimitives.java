@@ -0,0 +1,185 @@
+package schemette.environment;
+
+import schemette.cons.Cons;
+import schemette.exception.SchemeError;
+import schemette.expressions.BooleanExpression;
+import schemette.expressions.Expression;
+import schemette.expressions.HashTableExpression;
+import schemette.expressions.HashTableExpression.Equivalence;
+import schemette.expressions.NumberExpression;
+import schemette.expressions.ProcedureExpression;
+
+import static schemette.expressions.HashTableExpression.hashTable;
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.ProcedureExpression.procedure;
+import static schemette.expressions.ProcedureExpression.procedure1;
+import static schemette.expressions.ProcedureExpression.procedure2;
+import static schemette.expressions.ProcedureExpression.trampoline;
+
+/**
+ * Primitives over hash tables, which find a key in constant time where an association list is scanned.
+ * <ul>
+ * <li>{@code (make-hash-table)} and {@code (make-hash-table equal?)} return a table that compares keys by their
+ * contents; {@code (make-hash-table eq?)} one that compares them by identity, which is cheaper for large keys.</li>
+ * <li>{@code (hash-table-ref table key)} returns the value of a key, calling {@code (hash-table-ref table key thunk)}
+ * returns the value of {@code thunk} if the key is missing; {@code (hash-table-ref/default table key default)}
+ * returns {@code default} instead.</li>
+ * <li>{@code (hash-table-set! table key value)} and {@code (hash-table-delete! table key)} add, replace and remove
+ * entries, and {@code (hash-table-contains? table key)} tells whether there is one for a key.</li>
+ * <li>{@code (hash-table-update! table key f)} replaces the value of a key with {@code (f value)}, starting from the
+ * value of a thunk if one is given as a fourth argument; {@code (hash-table-update!/default table key f default)}
+ * starts from {@code default}.</li>
+ * <li>{@code (hash-table-walk table f)} calls {@code (f key value)} for each entry, and {@code (hash-table-keys table)}
+ * and {@code (hash-table-values table)} return lists of them, in no particular order.</li>
+ * <li>{@code (hash-table-size table)} and {@code (hash-table? x)} return the number of entries and test for tables.
+ * </li>
+ * </ul>
+ * Looking up a missing key without a default throws a {@link SchemeError}.
+ */
+class HashTablePrimitives {
+    static final ProcedureExpression MAKE_HASH_TABLE = procedure(args -> {
+        if (args.isEmpty()) {
+            return hashTable(Equivalence.EQUAL);
+        } else if (!args.cdr().isEmpty()) {
+            throw new SchemeError(String.format("Expected 0 or 1 arguments, got %d", args.size()));
+        } else if (args.car() == DefaultEnvironment.EQ) {
+            return hashTable(Equivalence.EQ);
+        } else if (args.car() == DefaultEnvironment.EQUAL) {
+            return hashTable(Equivalence.EQUAL);
+        }
+        throw new SchemeError(String.format("Unsupported key equivalence %s", args.car().print()));
+    });
+
+    static final ProcedureExpression IS_HASH_TABLE = procedure1(a -> BooleanExpression.bool(a.isHashTable()));
+
+    static final ProcedureExpression HASH_TABLE_SIZE = procedure1(t -> NumberExpression.number(t.hashTable().size()));
+
+    static final ProcedureExpression HASH_TABLE_REF = new Primitive(2, 3) {
+        @Override
+        public Expression invoke2(Expression t, Expression key) {
+            Expression value = t.hashTable().get(key);
+            if (value == null) {
+                throw new SchemeError(String.format("Key not found: %s", key.print()));
+            }
+            return value;
+        }
+
+        @Override
+        public Expression invoke3(Expression t, Expression key, Expression thunk) {
+            Expression value = t.hashTable().get(key);
+            return value == null ? trampoline(thunk.procedure().invoke0()) : value;
+        }
+    };
+
+    static final ProcedureExpression HASH_TABLE_REF_DEFAULT = new Primitive(3, 3) {
+        @Override
+        public Expression invoke3(Expression t, Expression key, Expression fallback) {
+            Expression value = t.hashTable().get(key);
+            return value == null ? fallback : value;
+        }
+    };
+
+    static final ProcedureExpression HASH_TABLE_SET = new Primitive(3, 3) {
+        @Override
+        public Expression invoke3(Expression t, Expression key, Expression value) {
+            t.hashTable().put(key, value);
+            return Expression.none();
+        }
+    };
+
+    static final ProcedureExpression HASH_TABLE_DELETE = procedure2((t, key) -> {
+        t.hashTable().remove(key);
+        return Expression.none();
+    });
+
+    static final ProcedureExpression HASH_TABLE_CONTAINS = procedure2((t, key) ->
+            BooleanExpression.bool(t.hashTable().get(key) != null));
+
+    static final ProcedureExpression HASH_TABLE_UPDATE = new Primitive(3, 4) {
+        @Override
+        public Expression invoke3(Expression t, Expression key, Expression f) {
+            HashTableExpression table = t.hashTable();
+            Expression value = table.get(key);
+            if (value == null) {
+                throw new SchemeError(String.format("Key not found: %s", key.print()));
+            }
+            table.put(key, trampoline(f.procedure().invoke1(value)));
+            return Expression.none();
+        }
+
+        @Override
+        public Expression invoke4(Expression t, Expression key, Expression f, Expression thunk) {
+            HashTableExpression table = t.hashTable();
+            Expression value = table.get(key);
+            if (value == null) {
+                value = trampoline(thunk.procedure().invoke0());
+            }
+            table.put(key, trampoline(f.procedure().invoke1(value)));
+            return Expression.none();
+        }
+    };
+
+    static final ProcedureExpression HASH_TABLE_UPDATE_DEFAULT = new Primitive(4, 4) {
+        @Override
+        public Expression invoke4(Expression t, Expression key, Expression f, Expression fallback) {
+            HashTableExpression table = t.hashTable();
+            Expression value = table.get(key);
+            table.put(key, trampoline(f.procedure().invoke1(value == null ? fallback : value)));
+            return Expression.none();
+        }
+    };
+
+    static final ProcedureExpression HASH_TABLE_WALK = procedure2((t, f) -> {
+        ProcedureExpression procedure = f.procedure();
+        t.hashTable().forEach((key, value) -> trampoline(procedure.invoke2(key, value)));
+        return Expression.none();
+    });
+
+    static final ProcedureExpression HASH_TABLE_KEYS = procedure1(t -> {
+        Cons.Builder<Expression> keys = Cons.builder();
+        t.hashTable().forEach((key, value) -> keys.add(key));
+        return list(keys.build());
+    });
+
+    static final ProcedureExpression HASH_TABLE_VALUES = procedure1(t -> {
+        Cons.Builder<Expression> values = Cons.builder();
+        t.hashTable().forEach((key, value) -> values.add(value));
+        return list(values.build());
+    });
+
+    /**
+     * A primitive of two to four arguments, which implements the fixed arity {@code invoke} methods for the counts
+     * it accepts. Calls through a list or an array are checked and dispatched to them.
+     */
+    private abstract static class Primitive extends ProcedureExpression {
+        private final int min;
+        private final int max;
+
+        Primitive(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            return invoke(args.stream().toArray(Expression[]::new));
+        }
+
+        @Override
+        public Expression invoke(Expression[] args) {
+            if (args.length < min || args.length > max) {
+                throw min == max
+                        ? wrongNumberOfArguments(min, args.length)
+                        : new SchemeError(String.format("Expected %d or %d arguments, got %d", min, max, args.length));
+            }
+            switch (args.length) {
+                case 2:
+                    return invoke2(args[0], args[1]);
+                case 3:
+                    return invoke3(args[0], args[1], args[2]);
+                default:
+                    return invoke4(args[0], args[1], args[2], args[3]);
+            }
+        }
+    }
+}
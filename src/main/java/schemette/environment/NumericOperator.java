@@ -0,0 +1,13 @@
+package schemette.environment;
+
+import schemette.expressions.Expression;
+
+/**
+ * A binary numeric primitive that can be applied to two unboxed values directly, for call sites that have only
+ * seen fixnums, or only flonums, so far.
+ */
+public interface NumericOperator {
+    Expression applyFixnums(long a, long b);
+
+    Expression applyFlonums(double a, double b);
+}
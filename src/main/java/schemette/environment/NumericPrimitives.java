@@ -0,0 +1,402 @@
+package schemette.environment;
+
+import schemette.cons.Cons;
+import schemette.exception.SchemeError;
+import schemette.expressions.BooleanExpression;
+import schemette.expressions.Expression;
+import schemette.expressions.NumberExpression;
+import schemette.expressions.NumberExpression.Fixnum;
+import schemette.expressions.ProcedureExpression;
+
+import java.math.BigInteger;
+
+import static schemette.expressions.ProcedureExpression.procedure1;
+
+/**
+ * Arithmetic and comparison primitives over the numeric tower. Two fixnums are combined as unboxed longs, checking
+ * for overflow the way {@link Math#addExact} does and promoting the result to a bignum instead of wrapping; two
+ * flonums as unboxed doubles. Other operands are combined as doubles if either of them is inexact, and as
+ * BigIntegers otherwise. The common two argument case is handled by {@code invoke2} so that {@code (+ a b)}
+ * allocates at most its result.
+ */
+class NumericPrimitives {
+    static final ProcedureExpression ADD = new Fold(0) {
+        @Override
+        public NumberExpression applyFixnums(long a, long b) {
+            long result = a + b;
+            if (((a ^ result) & (b ^ result)) < 0) {
+                return applyBignums(BigInteger.valueOf(a), BigInteger.valueOf(b));
+            }
+            return NumberExpression.number(result);
+        }
+
+        @Override
+        public NumberExpression applyFlonums(double a, double b) {
+            return NumberExpression.number(a + b);
+        }
+
+        @Override
+        NumberExpression applyBignums(BigInteger a, BigInteger b) {
+            return NumberExpression.number(a.add(b));
+        }
+    };
+
+    static final ProcedureExpression MULTIPLY = new Fold(1) {
+        @Override
+        public NumberExpression applyFixnums(long a, long b) {
+            long result = a * b;
+            if ((Math.abs(a) | Math.abs(b)) >>> 31 != 0
+                    && (b != 0 && result / b != a || a == Long.MIN_VALUE && b == -1)) {
+                return applyBignums(BigInteger.valueOf(a), BigInteger.valueOf(b));
+            }
+            return NumberExpression.number(result);
+        }
+
+        @Override
+        public NumberExpression applyFlonums(double a, double b) {
+            return NumberExpression.number(a * b);
+        }
+
+        @Override
+        NumberExpression applyBignums(BigInteger a, BigInteger b) {
+            return NumberExpression.number(a.multiply(b));
+        }
+    };
+
+    static final ProcedureExpression SUBTRACT = new InverseFold(0) {
+        @Override
+        public NumberExpression applyFixnums(long a, long b) {
+            long result = a - b;
+            if (((a ^ b) & (a ^ result)) < 0) {
+                return applyBignums(BigInteger.valueOf(a), BigInteger.valueOf(b));
+            }
+            return NumberExpression.number(result);
+        }
+
+        @Override
+        public NumberExpression applyFlonums(double a, double b) {
+            return NumberExpression.number(a - b);
+        }
+
+        @Override
+        NumberExpression applyBignums(BigInteger a, BigInteger b) {
+            return NumberExpression.number(a.subtract(b));
+        }
+    };
+
+    /**
+     * Division of exact integers truncates, as it always has; with an inexact operand the quotient is a flonum.
+     * Without rationals only 1 and -1 have an exact reciprocal, so {@code (/ x)} of any other exact integer is an
+     * error rather than a truncated 0.
+     */
+    static final ProcedureExpression DIVIDE = new InverseFold(1) {
+        @Override
+        public Expression invoke1(Expression a) {
+            NumberExpression n = a.number();
+            if (n.isExact() && !(n instanceof Fixnum && Math.abs(((Fixnum) n).value) == 1)) {
+                throw new SchemeError(String.format("No exact reciprocal of %s", n.print()));
+            }
+            return super.invoke1(n);
+        }
+
+        @Override
+        public NumberExpression applyFixnums(long a, long b) {
+            if (a == Long.MIN_VALUE && b == -1) {
+                return applyBignums(BigInteger.valueOf(a), BigInteger.valueOf(b));
+            }
+            return NumberExpression.number(a / b);
+        }
+
+        @Override
+        public NumberExpression applyFlonums(double a, double b) {
+            return NumberExpression.number(a / b);
+        }
+
+        @Override
+        NumberExpression applyBignums(BigInteger a, BigInteger b) {
+            return NumberExpression.number(a.divide(b));
+        }
+    };
+
+    static final ProcedureExpression EQUAL = new Comparison() {
+        @Override
+        boolean test(long a, long b) {
+            return a == b;
+        }
+
+        @Override
+        boolean test(double a, double b) {
+            return a == b;
+        }
+    };
+
+    static final ProcedureExpression LESS = new Comparison() {
+        @Override
+        boolean test(long a, long b) {
+            return a < b;
+        }
+
+        @Override
+        boolean test(double a, double b) {
+            return a < b;
+        }
+    };
+
+    static final ProcedureExpression GREATER = new Comparison() {
+        @Override
+        boolean test(long a, long b) {
+            return a > b;
+        }
+
+        @Override
+        boolean test(double a, double b) {
+            return a > b;
+        }
+    };
+
+    static final ProcedureExpression LESS_OR_EQUAL = new Comparison() {
+        @Override
+        boolean test(long a, long b) {
+            return a <= b;
+        }
+
+        @Override
+        boolean test(double a, double b) {
+            return a <= b;
+        }
+    };
+
+    static final ProcedureExpression GREATER_OR_EQUAL = new Comparison() {
+        @Override
+        boolean test(long a, long b) {
+            return a >= b;
+        }
+
+        @Override
+        boolean test(double a, double b) {
+            return a >= b;
+        }
+    };
+
+    static final ProcedureExpression IS_EXACT = procedure1(a -> BooleanExpression.bool(a.number().isExact()));
+
+    static final ProcedureExpression IS_INEXACT = procedure1(a -> BooleanExpression.bool(!a.number().isExact()));
+
+    static final ProcedureExpression EXACT_TO_INEXACT = procedure1(a -> NumberExpression.number(a.number().doubleValue()));
+
+    /**
+     * Without rationals, an inexact number is made exact by dropping its fractional part.
+     */
+    static final ProcedureExpression INEXACT_TO_EXACT = procedure1(a -> a.number().isExact()
+            ? a
+            : NumberExpression.number(a.number().bigIntegerValue()));
+
+    /**
+     * A binary operation on numbers of any kind, which picks the representation to compute in from its operands.
+     */
+    private abstract static class Arithmetic extends ProcedureExpression implements NumericOperator {
+        @Override
+        public abstract NumberExpression applyFixnums(long a, long b);
+
+        @Override
+        public abstract NumberExpression applyFlonums(double a, double b);
+
+        abstract NumberExpression applyBignums(BigInteger a, BigInteger b);
+
+        NumberExpression apply(Expression x, Expression y) {
+            NumberExpression a = x.number();
+            NumberExpression b = y.number();
+            if (a instanceof Fixnum && b instanceof Fixnum) {
+                return applyFixnums(((Fixnum) a).value, ((Fixnum) b).value);
+            } else if (!a.isExact() || !b.isExact()) {
+                return applyFlonums(a.doubleValue(), b.doubleValue());
+            }
+            return applyBignums(a.bigIntegerValue(), b.bigIntegerValue());
+        }
+    }
+
+    /**
+     * An associative operation folded over all operands, starting from its identity.
+     */
+    private abstract static class Fold extends Arithmetic {
+        private final NumberExpression identity;
+
+        Fold(long identity) {
+            this.identity = NumberExpression.number(identity);
+        }
+
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            Expression result = identity;
+            for (Cons<Expression> c = args; !c.isEmpty(); c = c.cdr()) {
+                result = apply(result, c.car());
+            }
+            return result;
+        }
+
+        @Override
+        public Expression invoke(Expression[] args) {
+            Expression result = identity;
+            for (Expression arg : args) {
+                result = apply(result, arg);
+            }
+            return result;
+        }
+
+        @Override
+        public Expression invoke0() {
+            return identity;
+        }
+
+        @Override
+        public Expression invoke1(Expression a) {
+            return apply(identity, a);
+        }
+
+        @Override
+        public Expression invoke2(Expression a, Expression b) {
+            return apply(a, b);
+        }
+
+        @Override
+        public Expression invoke3(Expression a, Expression b, Expression c) {
+            return apply(apply(a, b), c);
+        }
+    }
+
+    /**
+     * Subtraction and division: with one operand the operation is applied to the identity, as in {@code (- x)},
+     * otherwise the rest of the operands are folded into the first one.
+     */
+    private abstract static class InverseFold extends Arithmetic {
+        private final NumberExpression identity;
+
+        InverseFold(long identity) {
+            this.identity = NumberExpression.number(identity);
+        }
+
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            if (args.isEmpty()) {
+                throw wrongNumberOfArguments(1, 0);
+            } else if (args.cdr().isEmpty()) {
+                return invoke1(args.car());
+            }
+
+            Expression result = args.car();
+            for (Cons<Expression> c = args.cdr(); !c.isEmpty(); c = c.cdr()) {
+                result = apply(result, c.car());
+            }
+            return result;
+        }
+
+        @Override
+        public Expression invoke(Expression[] args) {
+            if (args.length == 0) {
+                throw wrongNumberOfArguments(1, 0);
+            } else if (args.length == 1) {
+                return invoke1(args[0]);
+            }
+
+            Expression result = args[0];
+            for (int i = 1; i < args.length; i++) {
+                result = apply(result, args[i]);
+            }
+            return result;
+        }
+
+        @Override
+        public Expression invoke1(Expression a) {
+            return apply(identity, a);
+        }
+
+        @Override
+        public Expression invoke2(Expression a, Expression b) {
+            return apply(a, b);
+        }
+
+        @Override
+        public Expression invoke3(Expression a, Expression b, Expression c) {
+            return apply(apply(a, b), c);
+        }
+    }
+
+    /**
+     * A comparison that must hold between every pair of adjacent operands. Bignums are compared through the sign
+     * of {@link BigInteger#compareTo}, and exact numbers are compared with inexact ones as doubles.
+     */
+    private abstract static class Comparison extends ProcedureExpression implements NumericOperator {
+        abstract boolean test(long a, long b);
+
+        abstract boolean test(double a, double b);
+
+        @Override
+        public Expression applyFixnums(long a, long b) {
+            return BooleanExpression.bool(test(a, b));
+        }
+
+        @Override
+        public Expression applyFlonums(double a, double b) {
+            return BooleanExpression.bool(test(a, b));
+        }
+
+        private boolean holds(Expression x, Expression y) {
+            NumberExpression a = x.number();
+            NumberExpression b = y.number();
+            if (a instanceof Fixnum && b instanceof Fixnum) {
+                return test(((Fixnum) a).value, ((Fixnum) b).value);
+            } else if (!a.isExact() || !b.isExact()) {
+                return test(a.doubleValue(), b.doubleValue());
+            }
+            return test(a.bigIntegerValue().compareTo(b.bigIntegerValue()), 0);
+        }
+
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            if (args.isEmpty()) {
+                return BooleanExpression.bool(true);
+            }
+
+            Expression previous = args.car().number();
+            for (Cons<Expression> c = args.cdr(); !c.isEmpty(); c = c.cdr()) {
+                Expression next = c.car();
+                if (!holds(previous, next)) {
+                    return BooleanExpression.bool(false);
+                }
+                previous = next;
+            }
+            return BooleanExpression.bool(true);
+        }
+
+        @Override
+        public Expression invoke(Expression[] args) {
+            if (args.length == 0) {
+                return BooleanExpression.bool(true);
+            }
+
+            args[0].number();
+            for (int i = 1; i < args.length; i++) {
+                if (!holds(args[i - 1], args[i])) {
+                    return BooleanExpression.bool(false);
+                }
+            }
+            return BooleanExpression.bool(true);
+        }
+
+        @Override
+        public Expression invoke1(Expression a) {
+            a.number();
+            return BooleanExpression.bool(true);
+        }
+
+        @Override
+        public Expression invoke2(Expression a, Expression b) {
+            return BooleanExpression.bool(holds(a, b));
+        }
+
+        @Override
+        public Expression invoke3(Expression a, Expression b, Expression c) {
+            return BooleanExpression.bool(holds(a, b) && holds(b, c));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package schemette.environment;
+
+import schemette.cons.Cons;
+import schemette.exception.SchemeError;
+import schemette.expressions.Expression;
+import schemette.expressions.FutureExpression;
+import schemette.expressions.ProcedureExpression;
+
+import java.util.concurrent.ForkJoinTask;
+
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.ProcedureExpression.procedure;
+import static schemette.expressions.ProcedureExpression.procedure1;
+import static schemette.expressions.ProcedureExpression.procedure2;
+import static schemette.expressions.ProcedureExpression.trampoline;
+
+/**
+ * Primitives that run procedures in parallel on the common fork-join pool.
+ * <ul>
+ * <li>{@code (future thunk)} starts calling {@code thunk} with no arguments and returns a future for its value.</li>
+ * <li>{@code (touch x)} waits for a future and returns its value; any other value is returned as it is.</li>
+ * <li>{@code (pmap f list)} returns the list of {@code (f x)} for each element, calling {@code f} in parallel.</li>
+ * <li>{@code (preduce f init list)} folds the list with {@code f} in parallel. {@code f} must be associative and
+ * {@code init} its identity, since the list is split into parts that are folded separately and then combined.</li>
+ * </ul>
+ * The procedures run in the interpreter that created them, so they share its global environment and any
+ * variables they close over. Everything visible to the caller when a task is started is visible to the task, and
+ * everything the task did is visible to the caller once {@code touch} or {@code pmap} returns. In between, reading
+ * shared bindings and lists is safe, while assigning them with {@code set!}, {@code define}, {@code set-car!} or
+ * {@code set-cdr!} races with the other tasks: the result of such writes is unspecified until the tasks are joined.
+ * Each call has its own frame, so a task can freely assign its own parameters and local variables.
+ * <p>
+ * Tasks that call the same procedure also share its analyzed code, which specializes itself and gets compiled as it
+ * runs. Those changes are published safely, as described in {@link schemette.nodes.Node}, so tasks never see code
+ * that is only partly rewritten.
+ */
+class ParallelPrimitives {
+    static final ProcedureExpression FUTURE = procedure1(thunk -> {
+        ProcedureExpression procedure = thunk.procedure();
+        ForkJoinTask<Expression> task = ForkJoinTask.adapt(() -> trampoline(procedure.invoke0()));
+        task.fork();
+        return new FutureExpression(task);
+    });
+
+    static final ProcedureExpression TOUCH = procedure1(value -> value.isFuture() ? value.future().touch() : value);
+
+    static final ProcedureExpression PMAP = procedure2((f, list) -> {
+        ProcedureExpression procedure = f.procedure();
+        return list(list.list().value.stream()
+                .parallel()
+                .map(e -> trampoline(procedure.invoke1(e)))
+                .collect(Cons.collector()));
+    });
+
+    static final ProcedureExpression PREDUCE = procedure(args -> {
+        if (args.size() != 3) {
+            throw new SchemeError(String.format("Expected 3 arguments, got %d", args.size()));
+        }
+        ProcedureExpression procedure = args.car().procedure();
+        return args.cdr().cdr().car().list().value.stream()
+                .parallel()
+                .reduce(args.cadr(), (a, b) -> trampoline(procedure.invoke2(a, b)));
+    });
+}
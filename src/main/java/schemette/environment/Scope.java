@@ -0,0 +1,77 @@
+package schemette.environment;
+
+import schemette.expressions.SymbolExpression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compile time view of the procedure frames enclosing an expression. Variables bound by a procedure are given a
+ * fixed slot in its frame so that the evaluator can address them by (depth, slot) instead of by name. Variables not
+ * found in any scope are globals and are looked up from the environment the outermost expression is evaluated in.
+ */
+public class Scope {
+    private final List<SymbolExpression> names = new ArrayList<>();
+    private final Scope enclosingScope;
+
+    private Scope(Scope enclosingScope) {
+        this.enclosingScope = enclosingScope;
+    }
+
+    public static Scope extend(Scope enclosingScope, Iterable<SymbolExpression> names) {
+        Scope scope = new Scope(enclosingScope);
+        for (SymbolExpression name : names) {
+            scope.define(name);
+        }
+        return scope;
+    }
+
+    public int define(SymbolExpression name) {
+        int slot = names.indexOf(name);
+        if (slot == -1) {
+            names.add(name);
+            return names.size() - 1;
+        }
+        return slot;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Returns the address of a variable, or {@code null} if it is not bound in any enclosing scope.
+     */
+    public static Address resolve(Scope scope, SymbolExpression name) {
+        int depth = 0;
+        for (Scope s = scope; s != null; s = s.enclosingScope) {
+            int slot = s.names.indexOf(name);
+            if (slot != -1) {
+                return new Address(depth, slot);
+            }
+            depth++;
+        }
+        return null;
+    }
+
+    /**
+     * Number of procedure frames between an expression in this scope and the environment in which globals live.
+     */
+    public static int depth(Scope scope) {
+        int depth = 0;
+        for (Scope s = scope; s != null; s = s.enclosingScope) {
+            depth++;
+        }
+        return depth;
+    }
+
+    public static class Address {
+        public final int depth;
+        public final int slot;
+
+        private Address(int depth, int slot) {
+            this.depth = depth;
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package schemette.environment;
+
+import schemette.cons.Cons;
+import schemette.exception.SchemeError;
+import schemette.expressions.BooleanExpression;
+import schemette.expressions.Expression;
+import schemette.expressions.NumberExpression;
+import schemette.expressions.NumberExpression.Fixnum;
+import schemette.expressions.ProcedureExpression;
+import schemette.expressions.VectorExpression;
+
+import java.util.Arrays;
+
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.ProcedureExpression.procedure;
+import static schemette.expressions.ProcedureExpression.procedure1;
+import static schemette.expressions.ProcedureExpression.procedure2;
+import static schemette.expressions.VectorExpression.vector;
+
+/**
+ * Primitives that create and access vectors. Lengths and indexes must be exact integers in range, otherwise a
+ * {@link SchemeError} is thrown.
+ * <ul>
+ * <li>{@code (vector x ...)} returns a vector of its arguments.</li>
+ * <li>{@code (make-vector k)} and {@code (make-vector k fill)} return a vector of {@code k} elements, which are all
+ * {@code fill}, or {@code 0} if it isn't given.</li>
+ * <li>{@code (vector-ref v k)} and {@code (vector-set! v k x)} read and replace an element.</li>
+ * <li>{@code (vector-length v)}, {@code (vector->list v)} and {@code (list->vector list)} convert between vectors,
+ * lengths and lists.</li>
+ * </ul>
+ */
+class VectorPrimitives {
+    static final ProcedureExpression VECTOR = new ProcedureExpression() {
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            return VectorExpression.vector(args.stream().toArray(Expression[]::new));
+        }
+
+        /**
+         * Keeps the argument array, which callers pass fresh for every call, as the storage of the vector.
+         */
+        @Override
+        public Expression invoke(Expression[] args) {
+            return VectorExpression.vector(args);
+        }
+    };
+
+    static final ProcedureExpression MAKE_VECTOR = procedure(args -> {
+        if (args.isEmpty() || args.size() > 2) {
+            throw new SchemeError(String.format("Expected 1 or 2 arguments, got %d", args.size()));
+        }
+        NumberExpression length = args.car().number();
+        if (!(length instanceof Fixnum) || ((Fixnum) length).value < 0 || ((Fixnum) length).value > Integer.MAX_VALUE) {
+            throw new SchemeError(String.format("Invalid vector length %s", length.print()));
+        }
+        Expression[] elements = new Expression[(int) ((Fixnum) length).value];
+        Arrays.fill(elements, args.cdr().isEmpty() ? NumberExpression.number(0) : args.cadr());
+        return vector(elements);
+    });
+
+    static final ProcedureExpression IS_VECTOR = procedure1(a -> BooleanExpression.bool(a.isVector()));
+
+    static final ProcedureExpression VECTOR_LENGTH = procedure1(v -> NumberExpression.number(v.vector().value.length));
+
+    static final ProcedureExpression VECTOR_REF = procedure2((v, k) -> {
+        Expression[] elements = v.vector().value;
+        return elements[index(k, elements.length)];
+    });
+
+    static final ProcedureExpression VECTOR_SET = new ProcedureExpression() {
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            if (args.size() != 3) {
+                throw wrongNumberOfArguments(3, args.size());
+            }
+            return invoke3(args.car(), args.cadr(), args.cdr().cadr());
+        }
+
+        @Override
+        public Expression invoke(Expression[] args) {
+            if (args.length != 3) {
+                throw wrongNumberOfArguments(3, args.length);
+            }
+            return invoke3(args[0], args[1], args[2]);
+        }
+
+        @Override
+        public Expression invoke3(Expression v, Expression k, Expression x) {
+            Expression[] elements = v.vector().value;
+            elements[index(k, elements.length)] = x;
+            return Expression.none();
+        }
+    };
+
+    static final ProcedureExpression VECTOR_TO_LIST = procedure1(v -> list(Cons.copyOf(v.vector().value)));
+
+    static final ProcedureExpression LIST_TO_VECTOR = procedure1(l -> vector(l.list().value.stream().toArray(Expression[]::new)));
+
+    /**
+     * Returns an exact integer as an index below a limit.
+     */
+    private static int index(Expression k, int limit) {
+        NumberExpression n = k.number();
+        if (!(n instanceof Fixnum) || ((Fixnum) n).value < 0 || ((Fixnum) n).value >= limit) {
+            throw new SchemeError(String.format("Index %s out of range 0 to %d", n.print(), limit - 1));
+        }
+        return (int) ((Fixnum) n).value;
+    }
+}
@@ -1,14 +1,17 @@
 package schemette.expressions;
 
 public class BooleanExpression implements Expression {
+    public static final BooleanExpression TRUE = new BooleanExpression(true);
+    public static final BooleanExpression FALSE = new BooleanExpression(false);
+
     public final boolean value;
 
-    public BooleanExpression(boolean value) {
+    private BooleanExpression(boolean value) {
         this.value = value;
     }
 
     public static BooleanExpression bool(boolean value) {
-        return new BooleanExpression(value);
+        return value ? TRUE : FALSE;
     }
 
     @Override
@@ -30,4 +33,14 @@ public class BooleanExpression implements Expression {
     public String print() {
         return value ? "#t" : "#f";
     }
+
+    @Override
+    public BooleanExpression bool() {
+        return this;
+    }
+
+    @Override
+    public boolean isBoolean() {
+        return true;
+    }
 }
@@ -0,0 +1,142 @@
+package schemette.expressions;
+
+import schemette.cons.Cons;
+import schemette.environment.Environment;
+import schemette.exception.SchemeError;
+import schemette.nodes.LambdaNode;
+
+/**
+ * A procedure created by evaluating a lambda. Arguments are stored straight into a new frame of {@code frameSize}
+ * slots, the first {@code required} of which hold the fixed parameters, followed by the rest parameter if there is
+ * one and then the internal definitions of the body.
+ *
+ * @see LambdaNode
+ */
+public class CompoundProcedureExpression extends ProcedureExpression {
+    private final LambdaNode lambda;
+    private final Environment environment;
+    private final int frameSize;
+    private final int required;
+    private final boolean rest;
+
+    public CompoundProcedureExpression(LambdaNode lambda, Environment environment) {
+        this.lambda = lambda;
+        this.environment = environment;
+        this.frameSize = lambda.frameSize;
+        this.required = lambda.required;
+        this.rest = lambda.rest;
+    }
+
+    @Override
+    public Expression invoke(Cons<Expression> args) {
+        Expression[] frame = newFrame();
+        for (int i = 0; i < required; i++) {
+            if (args.isEmpty()) {
+                throw tooFewArguments(i);
+            }
+            frame[i] = args.car();
+            args = args.cdr();
+        }
+        if (rest) {
+            frame[required] = ListExpression.list(args);
+        }
+        return lambda.executeBody(environment.extend(frame));
+    }
+
+    @Override
+    public Expression invoke(Expression[] args) {
+        if (args.length < required) {
+            throw tooFewArguments(args.length);
+        }
+
+        if (!rest && args.length == required && required == frameSize) {
+            return lambda.executeBody(environment.extend(args));
+        }
+
+        Expression[] frame = newFrame();
+        System.arraycopy(args, 0, frame, 0, required);
+        if (rest) {
+            Cons.Builder<Expression> restArgs = Cons.builder();
+            for (int i = required; i < args.length; i++) {
+                restArgs.add(args[i]);
+            }
+            frame[required] = ListExpression.list(restArgs.build());
+        }
+        return lambda.executeBody(environment.extend(frame));
+    }
+
+    @Override
+    public Expression invoke0() {
+        if (rest || required != 0) {
+            return invoke(NO_ARGS);
+        }
+        return lambda.executeBody(environment.extend(newFrame()));
+    }
+
+    @Override
+    public Expression invoke1(Expression a) {
+        if (rest || required != 1) {
+            return invoke(new Expression[]{a});
+        }
+        Expression[] frame = newFrame();
+        frame[0] = a;
+        return lambda.executeBody(environment.extend(frame));
+    }
+
+    @Override
+    public Expression invoke2(Expression a, Expression b) {
+        if (rest || required != 2) {
+            return invoke(new Expression[]{a, b});
+        }
+        Expression[] frame = newFrame();
+        frame[0] = a;
+        frame[1] = b;
+        return lambda.executeBody(environment.extend(frame));
+    }
+
+    @Override
+    public Expression invoke3(Expression a, Expression b, Expression c) {
+        if (rest || required != 3) {
+            return invoke(new Expression[]{a, b, c});
+        }
+        Expression[] frame = newFrame();
+        frame[0] = a;
+        frame[1] = b;
+        frame[2] = c;
+        return lambda.executeBody(environment.extend(frame));
+    }
+
+    @Override
+    public Expression invoke4(Expression a, Expression b, Expression c, Expression d) {
+        if (rest || required != 4) {
+            return invoke(new Expression[]{a, b, c, d});
+        }
+        Expression[] frame = newFrame();
+        frame[0] = a;
+        frame[1] = b;
+        frame[2] = c;
+        frame[3] = d;
+        return lambda.executeBody(environment.extend(frame));
+    }
+
+    public LambdaNode lambda() {
+        return lambda;
+    }
+
+    public Environment environment() {
+        return environment;
+    }
+
+    @Override
+    public boolean isCompound() {
+        return true;
+    }
+
+    private Expression[] newFrame() {
+        return frameSize == 0 ? NO_ARGS : new Expression[frameSize];
+    }
+
+    private SchemeError tooFewArguments(int actual) {
+        return new SchemeError(String.format("Expected at least %d arguments, got %d", required, actual));
+    }
+}
@@ -22,7 +22,7 @@ public interface Expression {
 
     default <T extends Expression> T assertExpressionOfType(Class<T> type) {
         if (!instanceOf(type)) {
-            throw new UnexpectedExpression(String.format("Expected expression of type '%s', got '%s'", type.getSimpleName(), this));
+            throw unexpected(type);
         }
 
         return type.cast(this);
@@ -32,47 +32,82 @@ public interface Expression {
         return type.isAssignableFrom(this.getClass());
     }
 
+    default UnexpectedExpression unexpected(Class<? extends Expression> type) {
+        return new UnexpectedExpression(String.format("Expected expression of type '%s', got '%s'", type.getSimpleName(), this));
+    }
+
+    // The type tests and casts below are overridden by the matching expression type, so that each of them is a
+    // single virtual call instead of a reflective class check.
+
     default ListExpression list() {
-        return assertExpressionOfType(ListExpression.class);
+        throw unexpected(ListExpression.class);
     }
 
     default NumberExpression number() {
-        return assertExpressionOfType(NumberExpression.class);
+        throw unexpected(NumberExpression.class);
     }
 
     default ProcedureExpression procedure() {
-        return assertExpressionOfType(ProcedureExpression.class);
+        throw unexpected(ProcedureExpression.class);
     }
 
     default SymbolExpression symbol() {
-        return assertExpressionOfType(SymbolExpression.class);
+        throw unexpected(SymbolExpression.class);
     }
 
     default BooleanExpression bool() {
-        return assertExpressionOfType(BooleanExpression.class);
+        throw unexpected(BooleanExpression.class);
     }
 
-    default StringExpression string() { return assertExpressionOfType(StringExpression.class); }
+    default StringExpression string() { throw unexpected(StringExpression.class); }
+
+    default VectorExpression vector() {
+        throw unexpected(VectorExpression.class);
+    }
+
+    default HashTableExpression hashTable() {
+        throw unexpected(HashTableExpression.class);
+    }
+
+    default FutureExpression future() {
+        throw unexpected(FutureExpression.class);
+    }
 
     default boolean isList() {
-        return instanceOf(ListExpression.class);
+        return false;
     }
 
     default boolean isSymbol() {
-        return instanceOf(SymbolExpression.class);
+        return false;
     }
 
     default boolean isNumber() {
-        return instanceOf(NumberExpression.class);
+        return false;
     }
 
     default boolean isProcedure() {
-        return instanceOf(ProcedureExpression.class);
+        return false;
     }
 
     default boolean isBoolean() {
-        return instanceOf(BooleanExpression.class);
+        return false;
     }
 
-    default boolean isString() { return instanceOf(StringExpression.class); }
+    default boolean isString() { return false; }
+
+    default boolean isVector() {
+        return false;
+    }
+
+    default boolean isHashTable() {
+        return false;
+    }
+
+    default boolean isFuture() {
+        return false;
+    }
+
+    default boolean isTailCall() {
+        return false;
+    }
 }
@@ -0,0 +1,42 @@
+package schemette.expressions;
+
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A value that is being computed by a task on a fork-join pool. {@link #touch} waits for the task and returns its
+ * value, or rethrows the error it failed with.
+ */
+public class FutureExpression implements Expression {
+    private final ForkJoinTask<Expression> task;
+
+    public FutureExpression(ForkJoinTask<Expression> task) {
+        this.task = task;
+    }
+
+    public Expression touch() {
+        return task.join();
+    }
+
+    public boolean isDone() {
+        return task.isDone();
+    }
+
+    public String toString() {
+        return String.format("future(%s)", task);
+    }
+
+    @Override
+    public String print() {
+        return "#<Future>";
+    }
+
+    @Override
+    public FutureExpression future() {
+        return this;
+    }
+
+    @Override
+    public boolean isFuture() {
+        return true;
+    }
+}
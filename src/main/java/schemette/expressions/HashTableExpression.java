@@ -0,0 +1,203 @@
+package schemette.expressions;
+
+import java.util.function.BiConsumer;
+
+/**
+ * A mutable table from keys to values, stored by open addressing in parallel arrays whose length is a power of two.
+ * A key goes in the first free slot at or after the one its hash selects, and removing a key shifts the keys that
+ * follow it back towards their own slots instead of leaving a marker behind, so a lookup only ever scans the run of
+ * keys that collided with it. The hash of every key is kept next to it, so growing the table and comparing keys
+ * doesn't hash structured keys again.
+ * <p>
+ * Keys are compared according to the {@link Equivalence} the table was made with. Like other mutable objects,
+ * tables compare by identity.
+ */
+public class HashTableExpression implements Expression {
+    private static final int INITIAL_CAPACITY = 16;
+
+    public final Equivalence equivalence;
+    private Expression[] keys = new Expression[INITIAL_CAPACITY];
+    private Expression[] values = new Expression[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public enum Equivalence {
+        /**
+         * Compares keys by identity, as {@code eq?} does in other Schemes. Lists are identified by their first pair
+         * and numbers, which are boxed here, by their value.
+         */
+        EQ {
+            @Override
+            int hash(Expression key) {
+                return key.isNumber() || key.isSymbol() ? key.hashCode() : System.identityHashCode(identity(key));
+            }
+
+            @Override
+            boolean same(Expression a, Expression b) {
+                return a.isNumber() ? a.equals(b) : identity(a) == identity(b);
+            }
+
+            private Object identity(Expression key) {
+                return key.isList() ? key.list().value : key;
+            }
+        },
+
+        /**
+         * Compares keys by their contents, as {@code eq?} and {@code equal?} do in this interpreter.
+         */
+        EQUAL {
+            @Override
+            int hash(Expression key) {
+                return key.hashCode();
+            }
+
+            @Override
+            boolean same(Expression a, Expression b) {
+                return a.equals(b);
+            }
+        };
+
+        abstract int hash(Expression key);
+
+        abstract boolean same(Expression a, Expression b);
+    }
+
+    public HashTableExpression(Equivalence equivalence) {
+        this.equivalence = equivalence;
+    }
+
+    public static HashTableExpression hashTable(Equivalence equivalence) {
+        return new HashTableExpression(equivalence);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of a key, or null if the table doesn't contain it.
+     */
+    public Expression get(Expression key) {
+        int slot = find(key, equivalence.hash(key));
+        return slot < 0 ? null : values[slot];
+    }
+
+    public void put(Expression key, Expression value) {
+        int hash = equivalence.hash(key);
+        int slot = find(key, hash);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+
+        if ((size + 1) * 3 > keys.length * 2) {
+            resize(keys.length * 2);
+        }
+        insert(key, value, hash);
+        size++;
+    }
+
+    /**
+     * Removes a key, telling whether the table contained it.
+     */
+    public boolean remove(Expression key) {
+        int slot = find(key, equivalence.hash(key));
+        if (slot < 0) {
+            return false;
+        }
+
+        int mask = keys.length - 1;
+        int free = slot;
+        for (int i = (slot + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            // The key at i can fill the free slot unless its own slot lies cyclically after the free one
+            int home = slot(hashes[i]);
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                hashes[free] = hashes[i];
+                free = i;
+            }
+        }
+        keys[free] = null;
+        values[free] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Passes each key and its value to an action. The action may change the table, in which case it sees the
+     * entries as they were when the iteration started.
+     */
+    public void forEach(BiConsumer<Expression, Expression> action) {
+        Expression[] keys = this.keys.clone();
+        Expression[] values = this.values.clone();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int find(Expression key, int hash) {
+        int mask = keys.length - 1;
+        for (int i = slot(hash); keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && equivalence.same(keys[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(Expression key, Expression value, int hash) {
+        int mask = keys.length - 1;
+        int i = slot(hash);
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = hash;
+    }
+
+    private void resize(int capacity) {
+        Expression[] oldKeys = keys;
+        Expression[] oldValues = values;
+        int[] oldHashes = hashes;
+        keys = new Expression[capacity];
+        values = new Expression[capacity];
+        hashes = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldValues[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a hash over the index, since hashes such as those of small numbers differ only in their
+     * low bits.
+     */
+    private int slot(int hash) {
+        int h = hash * 0x9e3779b9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    public String toString() {
+        return String.format("hashTable(%s, %d)", equivalence, size);
+    }
+
+    @Override
+    public String print() {
+        return "#<hash-table>";
+    }
+
+    @Override
+    public HashTableExpression hashTable() {
+        return this;
+    }
+
+    @Override
+    public boolean isHashTable() {
+        return true;
+    }
+}
@@ -61,4 +61,14 @@ public class ListExpression implements Expression {
                 .map(Expression::print)
                 .collect(Collectors.joining(" ")));
     }
+
+    @Override
+    public ListExpression list() {
+        return this;
+    }
+
+    @Override
+    public boolean isList() {
+        return true;
+    }
 }
@@ -1,32 +1,213 @@
 package schemette.expressions;
 
-public class NumberExpression implements Expression {
-    public final long value;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 
-    public NumberExpression(long value) {
-        this.value = value;
-    }
+/**
+ * A number of the numeric tower: a {@link Fixnum} for exact integers that fit in a long, a {@link Bignum} for exact
+ * integers that don't, and a {@link Flonum} for inexact reals. Exact results are always created through
+ * {@link #number(BigInteger)}, so an integer has a single representation and numbers of different kinds are never
+ * equal, which makes {@link #equals} behave like {@code eqv?}.
+ */
+public abstract class NumberExpression implements Expression {
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
 
     public static NumberExpression number(long n) {
-        return new NumberExpression(n);
+        return Fixnum.of(n);
+    }
+
+    /**
+     * Returns an exact integer, as a fixnum if it fits in a long.
+     */
+    public static NumberExpression number(BigInteger n) {
+        if (n.compareTo(LONG_MIN) >= 0 && n.compareTo(LONG_MAX) <= 0) {
+            return Fixnum.of(n.longValue());
+        }
+        return new Bignum(n);
+    }
+
+    public static NumberExpression number(double n) {
+        return new Flonum(n);
     }
 
+    public abstract boolean isExact();
+
+    public abstract BigInteger bigIntegerValue();
+
+    public abstract double doubleValue();
+
     @Override
-    public boolean equals(Object o) {
-        return getClass() == o.getClass() && value == ((NumberExpression) o).value;
+    public NumberExpression number() {
+        return this;
     }
 
     @Override
-    public int hashCode() {
-        return (int) (value ^ (value >>> 32));
+    public boolean isNumber() {
+        return true;
+    }
+
+    public static class Fixnum extends NumberExpression {
+        /**
+         * Range of preallocated numbers, tunable with the {@code schemette.number.cache.low} and
+         * {@code schemette.number.cache.high} system properties.
+         */
+        private static final int CACHE_LOW = Integer.getInteger("schemette.number.cache.low", -128);
+        private static final int CACHE_HIGH = Integer.getInteger("schemette.number.cache.high", 1023);
+        private static final Fixnum[] CACHE = new Fixnum[Math.max(0, CACHE_HIGH - CACHE_LOW + 1)];
+
+        static {
+            for (int i = 0; i < CACHE.length; i++) {
+                CACHE[i] = new Fixnum(CACHE_LOW + i);
+            }
+        }
+
+        public final long value;
+
+        private Fixnum(long value) {
+            this.value = value;
+        }
+
+        static Fixnum of(long n) {
+            if (n >= CACHE_LOW && n <= CACHE_HIGH) {
+                return CACHE[(int) (n - CACHE_LOW)];
+            }
+            return new Fixnum(n);
+        }
+
+        @Override
+        public boolean isExact() {
+            return true;
+        }
+
+        @Override
+        public BigInteger bigIntegerValue() {
+            return BigInteger.valueOf(value);
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return getClass() == o.getClass() && value == ((Fixnum) o).value;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (value ^ (value >>> 32));
+        }
+
+        public String toString() {
+            return String.format("number(%s)", value);
+        }
+
+        @Override
+        public String print() {
+            return Long.toString(value);
+        }
     }
 
-    public String toString() {
-        return String.format("number(%s)", value);
+    public static class Bignum extends NumberExpression {
+        public final BigInteger value;
+
+        private Bignum(BigInteger value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isExact() {
+            return true;
+        }
+
+        @Override
+        public BigInteger bigIntegerValue() {
+            return value;
+        }
+
+        @Override
+        public double doubleValue() {
+            return value.doubleValue();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return getClass() == o.getClass() && value.equals(((Bignum) o).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        public String toString() {
+            return String.format("number(%s)", value);
+        }
+
+        @Override
+        public String print() {
+            return value.toString();
+        }
     }
 
-    @Override
-    public String print() {
-        return Long.toString(value);
+    public static class Flonum extends NumberExpression {
+        public final double value;
+
+        private Flonum(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isExact() {
+            return false;
+        }
+
+        /**
+         * Returns the integer part of the value. Infinities and NaN have no exact value.
+         */
+        @Override
+        public BigInteger bigIntegerValue() {
+            if (Double.isInfinite(value) || Double.isNaN(value)) {
+                throw new ArithmeticException("No exact representation of " + print());
+            }
+            return new BigDecimal(value).toBigInteger();
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        /**
+         * Compares the bits of the values, so that NaN is equal to itself and {@code 0.0} isn't equal to
+         * {@code -0.0}, as with {@code eqv?}.
+         */
+        @Override
+        public boolean equals(Object o) {
+            return getClass() == o.getClass()
+                    && Double.doubleToLongBits(value) == Double.doubleToLongBits(((Flonum) o).value);
+        }
+
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(value);
+            return (int) (bits ^ (bits >>> 32));
+        }
+
+        public String toString() {
+            return String.format("number(%s)", print());
+        }
+
+        @Override
+        public String print() {
+            if (Double.isNaN(value)) {
+                return "+nan.0";
+            } else if (Double.isInfinite(value)) {
+                return value > 0 ? "+inf.0" : "-inf.0";
+            }
+            return Double.toString(value).replace('E', 'e');
+        }
     }
 }
@@ -1,33 +1,174 @@
 package schemette.expressions;
 
 import schemette.cons.Cons;
+import schemette.exception.SchemeError;
 
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
-public class ProcedureExpression implements Expression {
+/**
+ * A callable procedure. Calls with up to four arguments go through the fixed arity {@code invoke} entry points so
+ * that neither the call site nor the procedure has to build an argument list; longer calls pass an array, and the
+ * list form is kept for {@code apply} and rest parameters.
+ * <p>
+ * The {@code invoke} methods may return a {@link TailCall} when the procedure ends in a call. Callers that need the
+ * final value should pass the result through {@link #trampoline} or use {@link #apply}.
+ */
+public abstract class ProcedureExpression implements Expression {
+    protected static final Expression[] NO_ARGS = new Expression[0];
 
-    public final Function<Cons<Expression>, Expression> lambda;
+    public abstract Expression invoke(Cons<Expression> args);
 
-    public ProcedureExpression(Function<Cons<Expression>, Expression> lambda) {
-        this.lambda = lambda;
+    /**
+     * Calls the procedure with an array of arguments. The procedure may keep the array as its frame, so callers
+     * must not reuse it.
+     */
+    public Expression invoke(Expression[] args) {
+        return invoke(Cons.copyOf(args));
+    }
+
+    public Expression invoke0() {
+        return invoke(NO_ARGS);
+    }
+
+    public Expression invoke1(Expression a) {
+        return invoke(new Expression[]{a});
+    }
+
+    public Expression invoke2(Expression a, Expression b) {
+        return invoke(new Expression[]{a, b});
+    }
+
+    public Expression invoke3(Expression a, Expression b, Expression c) {
+        return invoke(new Expression[]{a, b, c});
+    }
+
+    public Expression invoke4(Expression a, Expression b, Expression c, Expression d) {
+        return invoke(new Expression[]{a, b, c, d});
+    }
+
+    /**
+     * Calls the procedure with an argument list and runs any tail call it returns to completion.
+     */
+    public Expression apply(Cons<Expression> args) {
+        return trampoline(invoke(args));
+    }
+
+    public static Expression trampoline(Expression result) {
+        while (result.isTailCall()) {
+            TailCall call = (TailCall) result;
+            result = call.procedure.invoke(call.args);
+        }
+        return result;
+    }
+
+    /**
+     * Whether calls to this procedure can grow the stack without bound, and so must be deferred to the caller when
+     * made in tail position.
+     */
+    public boolean isCompound() {
+        return false;
     }
 
     public static ProcedureExpression procedure(Function<Cons<Expression>, Expression> lambda) {
-        return new ProcedureExpression(lambda);
+        return new ListPrimitive(lambda);
     }
 
-    @Override
-    public boolean equals(Object o) {
-        return getClass() == o.getClass() && lambda.equals(((ProcedureExpression) o).lambda);
+    public static ProcedureExpression procedure1(Function<Expression, Expression> lambda) {
+        return new UnaryPrimitive(lambda);
     }
 
-    @Override
-    public int hashCode() {
-        return lambda.hashCode();
+    public static ProcedureExpression procedure2(BiFunction<Expression, Expression, Expression> lambda) {
+        return new BinaryPrimitive(lambda);
+    }
+
+    protected static SchemeError wrongNumberOfArguments(int expected, long actual) {
+        return new SchemeError(String.format("Expected %d arguments, got %d", expected, actual));
     }
 
     @Override
     public String print() {
         return "#<Procedure>";
     }
+
+    @Override
+    public ProcedureExpression procedure() {
+        return this;
+    }
+
+    @Override
+    public boolean isProcedure() {
+        return true;
+    }
+
+    private static class ListPrimitive extends ProcedureExpression {
+        private final Function<Cons<Expression>, Expression> lambda;
+
+        ListPrimitive(Function<Cons<Expression>, Expression> lambda) {
+            this.lambda = lambda;
+        }
+
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            return lambda.apply(args);
+        }
+    }
+
+    private static class UnaryPrimitive extends ProcedureExpression {
+        private final Function<Expression, Expression> lambda;
+
+        UnaryPrimitive(Function<Expression, Expression> lambda) {
+            this.lambda = lambda;
+        }
+
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            if (args.isEmpty() || !args.cdr().isEmpty()) {
+                throw wrongNumberOfArguments(1, args.size());
+            }
+            return lambda.apply(args.car());
+        }
+
+        @Override
+        public Expression invoke(Expression[] args) {
+            if (args.length != 1) {
+                throw wrongNumberOfArguments(1, args.length);
+            }
+            return lambda.apply(args[0]);
+        }
+
+        @Override
+        public Expression invoke1(Expression a) {
+            return lambda.apply(a);
+        }
+    }
+
+    private static class BinaryPrimitive extends ProcedureExpression {
+        private final BiFunction<Expression, Expression, Expression> lambda;
+
+        BinaryPrimitive(BiFunction<Expression, Expression, Expression> lambda) {
+            this.lambda = lambda;
+        }
+
+        @Override
+        public Expression invoke(Cons<Expression> args) {
+            if (args.size() != 2) {
+                throw wrongNumberOfArguments(2, args.size());
+            }
+            return lambda.apply(args.car(), args.cadr());
+        }
+
+        @Override
+        public Expression invoke(Expression[] args) {
+            if (args.length != 2) {
+                throw wrongNumberOfArguments(2, args.length);
+            }
+            return lambda.apply(args[0], args[1]);
+        }
+
+        @Override
+        public Expression invoke2(Expression a, Expression b) {
+            return lambda.apply(a, b);
+        }
+    }
 }
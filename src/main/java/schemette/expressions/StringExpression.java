@@ -29,4 +29,14 @@ public class StringExpression implements Expression {
     public String print() {
         return value;
     }
+
+    @Override
+    public StringExpression string() {
+        return this;
+    }
+
+    @Override
+    public boolean isString() {
+        return true;
+    }
 }
@@ -1,25 +1,44 @@
 package schemette.expressions;
 
+import com.google.common.collect.MapMaker;
+
+import java.util.concurrent.ConcurrentMap;
+
 public class SymbolExpression implements Expression {
+    /**
+     * Canonical instance of every symbol in use. Values are weakly referenced so that symbols no longer reachable
+     * from any expression can be collected.
+     */
+    private static final ConcurrentMap<String, SymbolExpression> SYMBOLS = new MapMaker().weakValues().makeMap();
 
     public final String value;
+    private final int hash;
 
-    public SymbolExpression(String value) {
+    private SymbolExpression(String value) {
         this.value = value;
+        this.hash = value.hashCode();
     }
 
     public static SymbolExpression symbol(String s) {
-        return new SymbolExpression(s);
+        SymbolExpression symbol = SYMBOLS.get(s);
+        if (symbol == null) {
+            SymbolExpression candidate = new SymbolExpression(s);
+            symbol = SYMBOLS.putIfAbsent(s, candidate);
+            if (symbol == null) {
+                symbol = candidate;
+            }
+        }
+        return symbol;
     }
 
     @Override
     public boolean equals(Object o) {
-        return getClass() == o.getClass() && value.equals(((SymbolExpression) o).value);
+        return this == o;
     }
 
     @Override
     public int hashCode() {
-        return value.hashCode();
+        return hash;
     }
 
     public String toString() {
@@ -30,4 +49,14 @@ public class SymbolExpression implements Expression {
     public String print() {
         return value;
     }
+
+    @Override
+    public SymbolExpression symbol() {
+        return this;
+    }
+
+    @Override
+    public boolean isSymbol() {
+        return true;
+    }
 }
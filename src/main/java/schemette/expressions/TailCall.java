@@ -0,0 +1,32 @@
+package schemette.expressions;
+
+import java.util.Arrays;
+
+/**
+ * A procedure call in tail position that has been deferred to the caller. Procedure bodies return it instead of
+ * calling the procedure themselves so that {@link ProcedureExpression#trampoline} can run the call in a loop, keeping
+ * tail recursive Scheme code in constant Java stack.
+ */
+public class TailCall implements Expression {
+    public final ProcedureExpression procedure;
+    public final Expression[] args;
+
+    public TailCall(ProcedureExpression procedure, Expression[] args) {
+        this.procedure = procedure;
+        this.args = args;
+    }
+
+    public String toString() {
+        return String.format("tailCall(%s, %s)", procedure, Arrays.toString(args));
+    }
+
+    @Override
+    public String print() {
+        throw new IllegalStateException("Tail call escaped its trampoline");
+    }
+
+    @Override
+    public boolean isTailCall() {
+        return true;
+    }
+}
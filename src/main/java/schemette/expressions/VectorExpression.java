@@ -0,0 +1,56 @@
+package schemette.expressions;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * A fixed length sequence of expressions backed by an array, so that elements are read and replaced in constant
+ * time. Like lists, vectors are mutable and compare by their contents.
+ */
+public class VectorExpression implements Expression {
+    public final Expression[] value;
+
+    public VectorExpression(Expression[] value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns a vector of the given elements. The array becomes the storage of the vector and is not copied.
+     */
+    public static VectorExpression vector(Expression... elements) {
+        return new VectorExpression(elements);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return getClass() == o.getClass() && Arrays.equals(value, ((VectorExpression) o).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(value);
+    }
+
+    public String toString() {
+        return String.format("vector(%s)", Arrays.stream(value)
+                .map(Object::toString)
+                .collect(Collectors.joining(", ")));
+    }
+
+    @Override
+    public String print() {
+        return String.format("#(%s)", Arrays.stream(value)
+                .map(Expression::print)
+                .collect(Collectors.joining(" ")));
+    }
+
+    @Override
+    public VectorExpression vector() {
+        return this;
+    }
+
+    @Override
+    public boolean isVector() {
+        return true;
+    }
+}
@@ -0,0 +1,303 @@
+package schemette.image;
+
+import schemette.cons.Cons;
+import schemette.environment.Environment;
+import schemette.expressions.CompoundProcedureExpression;
+import schemette.expressions.Expression;
+import schemette.expressions.HashTableExpression;
+import schemette.expressions.HashTableExpression.Equivalence;
+import schemette.expressions.SymbolExpression;
+import schemette.nodes.CallNode;
+import schemette.nodes.ConstantNode;
+import schemette.nodes.GlobalReadNode;
+import schemette.nodes.GlobalWriteNode;
+import schemette.nodes.IfNode;
+import schemette.nodes.LambdaNode;
+import schemette.nodes.LocalReadNode;
+import schemette.nodes.LocalWriteNode;
+import schemette.nodes.Node;
+import schemette.nodes.PrimitiveCallNode;
+import schemette.nodes.RootNode;
+import schemette.nodes.SequenceNode;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static schemette.cons.Cons.cons;
+import static schemette.cons.Cons.empty;
+import static schemette.expressions.BooleanExpression.bool;
+import static schemette.expressions.ListExpression.Nil.nil;
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.NumberExpression.number;
+import static schemette.expressions.StringExpression.string;
+import static schemette.expressions.SymbolExpression.symbol;
+import static schemette.expressions.VectorExpression.vector;
+import static schemette.image.Tags.*;
+
+/**
+ * Reads what {@link ImageOutput} wrote, resolving primitives and the global environment against the ones given.
+ * Nodes are created through the same constructors and factories as the analyzer uses, so nothing is read that the
+ * analyzer could not have produced.
+ */
+public class ImageInput {
+    private final ByteBuffer in;
+    private final Environment globals;
+    private final Map<SymbolExpression, Expression> primitives;
+    private final List<Object> objects = new ArrayList<>();
+
+    public ImageInput(ByteBuffer in, Environment globals, Map<SymbolExpression, Expression> primitives) throws IOException {
+        this.in = in;
+        this.globals = globals;
+        this.primitives = primitives;
+
+        try {
+            byte[] magic = new byte[in.getShort()];
+            in.get(magic);
+            if (!MAGIC.equals(new String(magic, StandardCharsets.UTF_8)) || in.getInt() != VERSION) {
+                throw new StreamCorruptedException("Not an image of this version of Schemette");
+            }
+        } catch (BufferUnderflowException e) {
+            throw new StreamCorruptedException("Not an image of this version of Schemette");
+        }
+    }
+
+    public int readInt() throws IOException {
+        return in.getInt();
+    }
+
+    public boolean readBoolean() throws IOException {
+        return in.get() != 0;
+    }
+
+    /**
+     * Forgets the objects read so far, matching a {@link ImageOutput#reset()} at the same point of the stream.
+     */
+    public void reset() {
+        objects.clear();
+    }
+
+    public byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return bytes;
+    }
+
+    public SymbolExpression readSymbol() throws IOException {
+        byte tag = in.get();
+        switch (tag) {
+            case REF:
+                return (SymbolExpression) objects.get(in.getInt());
+            case SYMBOL:
+                return register(symbol(readString()));
+            default:
+                throw unexpected(tag);
+        }
+    }
+
+    public Expression readExpression() throws IOException {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case REF:
+                return (Expression) objects.get(in.getInt());
+            case NONE:
+                return Expression.none();
+            case TRUE:
+                return bool(true);
+            case FALSE:
+                return bool(false);
+            case NUMBER:
+                return number(in.getLong());
+            case BIGNUM:
+                return number(new BigInteger(readBytes()));
+            case FLONUM:
+                return number(in.getDouble());
+            case STRING:
+                return string(readString());
+            case SYMBOL:
+                return register(symbol(readString()));
+            case NIL:
+                return nil();
+            case LIST:
+                return list(readCons());
+            case VECTOR: {
+                Expression[] elements = new Expression[in.getInt()];
+                Expression vector = register(vector(elements));
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = readExpression();
+                }
+                return vector;
+            }
+            case HASH_TABLE: {
+                HashTableExpression table = register(HashTableExpression.hashTable(Equivalence.values()[in.get()]));
+                for (int size = in.getInt(); size > 0; size--) {
+                    Expression key = readExpression();
+                    table.put(key, readExpression());
+                }
+                return table;
+            }
+            case PRIMITIVE:
+                SymbolExpression name = readSymbol();
+                Expression primitive = primitives.get(name);
+                if (primitive == null) {
+                    throw new InvalidObjectException("Unknown primitive " + name.value);
+                }
+                return primitive;
+            case PROCEDURE:
+                Environment environment = readEnvironment();
+                LambdaNode lambda = (LambdaNode) readNode();
+                return readIdentity(new CompoundProcedureExpression(lambda, environment));
+            default:
+                throw unexpected(tag);
+        }
+    }
+
+    public Environment readEnvironment() throws IOException {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case REF:
+                return (Environment) objects.get(in.getInt());
+            case GLOBALS:
+                return globals;
+            case FRAME: {
+                Environment enclosing = readEnvironment();
+                if (readBoolean()) {
+                    return (Environment) objects.get(in.getInt());
+                }
+                Expression[] slots = new Expression[in.getInt()];
+                Environment env = register(enclosing.extend(slots));
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = readExpression();
+                }
+                return env;
+            }
+            case BINDINGS: {
+                Environment enclosing = readEnvironment();
+                if (readBoolean()) {
+                    return (Environment) objects.get(in.getInt());
+                }
+                int size = in.getInt();
+                Environment env = register(enclosing != null
+                        ? enclosing.extend(new HashMap<>())
+                        : new Environment(new HashMap<>()));
+                for (int i = 0; i < size; i++) {
+                    env.define(readSymbol(), readExpression());
+                }
+                return env;
+            }
+            default:
+                throw unexpected(tag);
+        }
+    }
+
+    public Node readNode() throws IOException {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case REF:
+                return (Node) objects.get(in.getInt());
+            case ROOT:
+                return new RootNode(readNode());
+            case CONSTANT:
+                return new ConstantNode(readExpression());
+            case LOCAL_READ:
+                return new LocalReadNode(readSymbol(), in.getInt(), in.getInt());
+            case LOCAL_WRITE:
+                return new LocalWriteNode(in.getInt(), in.getInt(), readNode());
+            case GLOBAL_READ:
+                return new GlobalReadNode(readSymbol(), in.getInt());
+            case GLOBAL_WRITE:
+                return new GlobalWriteNode(readSymbol(), in.getInt(), readBoolean(), readNode());
+            case IF:
+                return new IfNode(readNode(), readNode(), readNode());
+            case SEQUENCE:
+                return new SequenceNode(readNodes());
+            case LAMBDA:
+                return register(new LambdaNode(readNode(), in.getInt(), in.getInt(), readBoolean()));
+            case CALL:
+                return CallNode.create(readNode(), readNodes(), readBoolean());
+            case PRIMITIVE_CALL:
+                return PrimitiveCallNode.create(readSymbol(), in.getInt(), readNodes(), readBoolean());
+            default:
+                throw unexpected(tag);
+        }
+    }
+
+    public Node[] readNodes() throws IOException {
+        Node[] nodes = new Node[in.getInt()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = readNode();
+        }
+        return nodes;
+    }
+
+    private Cons<Expression> readCons() throws IOException {
+        Cons<Expression> head = null;
+        Cons<Expression> last = null;
+        while (true) {
+            byte tag = in.get();
+            Cons<Expression> next;
+            switch (tag) {
+                case EMPTY:
+                    next = empty();
+                    break;
+                case REF:
+                    @SuppressWarnings("unchecked")
+                    Cons<Expression> shared = (Cons<Expression>) objects.get(in.getInt());
+                    next = shared;
+                    break;
+                case CONS:
+                    next = register(cons(null, empty()));
+                    break;
+                default:
+                    throw unexpected(tag);
+            }
+
+            if (last == null) {
+                head = next;
+            } else {
+                last.setCdr(next);
+            }
+            if (tag != CONS) {
+                return head;
+            }
+            next.setCar(readExpression());
+            last = next;
+        }
+    }
+
+    private String readString() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private <T> T readIdentity(T object) {
+        if (in.get() != 0) {
+            @SuppressWarnings("unchecked")
+            T existing = (T) objects.get(in.getInt());
+            return existing;
+        }
+        return register(object);
+    }
+
+    private <T> T register(T object) {
+        objects.add(object);
+        return object;
+    }
+
+    private static StreamCorruptedException unexpected(byte tag) {
+        return new StreamCorruptedException(String.format("Unexpected tag %d", tag));
+    }
+}
@@ -0,0 +1,347 @@
+package schemette.image;
+
+import schemette.cons.Cons;
+import schemette.environment.Environment;
+import schemette.expressions.CompoundProcedureExpression;
+import schemette.expressions.Expression;
+import schemette.expressions.NumberExpression.Bignum;
+import schemette.expressions.NumberExpression.Fixnum;
+import schemette.expressions.NumberExpression.Flonum;
+import schemette.expressions.SymbolExpression;
+import schemette.expressions.HashTableExpression;
+import schemette.expressions.VectorExpression;
+import schemette.nodes.LambdaNode;
+import schemette.nodes.Node;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static schemette.expressions.ListExpression.Nil.nil;
+import static schemette.image.Tags.*;
+
+/**
+ * Writes expressions, environments and analyzed nodes in the binary form read by {@link ImageInput}.
+ * <p>
+ * Symbols, conses, procedure frames, compound procedures and lambda nodes are written once and referred to by
+ * index after that, so that shared and circular structure reads back the same. The primitives and the global
+ * environment of the interpreter the image is written from are written by reference only, and resolve to those of
+ * the interpreter the image is read into. Futures are written as their values.
+ * <p>
+ * Nodes write themselves through the {@code write} methods for each kind of node, which record how to create the
+ * node again rather than its state. Specialized nodes are written as the call they were created for, so they
+ * start over from the analyzer's choice when read.
+ */
+public class ImageOutput {
+    private final DataOutputStream out;
+    private final Environment globals;
+    private final Map<Expression, SymbolExpression> primitiveNames = new IdentityHashMap<>();
+    private final Map<Object, Integer> indexes = new IdentityHashMap<>();
+
+    public ImageOutput(OutputStream out, Environment globals, Map<SymbolExpression, Expression> primitives) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.globals = globals;
+        primitives.forEach((name, primitive) -> primitiveNames.put(primitive, name));
+
+        this.out.writeUTF(MAGIC);
+        this.out.writeInt(VERSION);
+    }
+
+    public void writeInt(int value) throws IOException {
+        out.writeInt(value);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        out.writeBoolean(value);
+    }
+
+    public void writeBytes(byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Forgets the objects written so far, so that what is written next never refers back to them and the table of
+     * written objects doesn't grow with the length of the stream. The reading side resets at the same point.
+     */
+    public void reset() {
+        indexes.clear();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public void writeSymbol(SymbolExpression symbol) throws IOException {
+        if (writeReference(symbol)) {
+            return;
+        }
+        out.writeByte(SYMBOL);
+        writeString(symbol.value);
+        register(symbol);
+    }
+
+    public void writeExpression(Expression expression) throws IOException {
+        if (expression == null) {
+            out.writeByte(NULL);
+        } else if (expression == Expression.none()) {
+            out.writeByte(NONE);
+        } else if (expression.isBoolean()) {
+            out.writeByte(expression.bool().value ? TRUE : FALSE);
+        } else if (expression instanceof Fixnum) {
+            out.writeByte(NUMBER);
+            out.writeLong(((Fixnum) expression).value);
+        } else if (expression instanceof Bignum) {
+            out.writeByte(BIGNUM);
+            writeBytes(((Bignum) expression).value.toByteArray());
+        } else if (expression instanceof Flonum) {
+            out.writeByte(FLONUM);
+            out.writeDouble(((Flonum) expression).value);
+        } else if (expression.isString()) {
+            out.writeByte(STRING);
+            writeString(expression.string().value);
+        } else if (expression.isSymbol()) {
+            writeSymbol(expression.symbol());
+        } else if (expression == nil()) {
+            out.writeByte(NIL);
+        } else if (expression.isList()) {
+            out.writeByte(LIST);
+            writeCons(expression.list().value);
+        } else if (expression.isVector()) {
+            writeVector(expression.vector());
+        } else if (expression.isHashTable()) {
+            writeHashTable(expression.hashTable());
+        } else if (expression.isFuture()) {
+            writeExpression(expression.future().touch());
+        } else if (primitiveNames.containsKey(expression)) {
+            out.writeByte(PRIMITIVE);
+            writeSymbol(primitiveNames.get(expression));
+        } else if (expression.isProcedure() && expression.procedure().isCompound()) {
+            writeProcedure((CompoundProcedureExpression) expression);
+        } else {
+            throw new NotSerializableException(expression.toString());
+        }
+    }
+
+    public void writeEnvironment(Environment env) throws IOException {
+        if (env == null) {
+            out.writeByte(NULL);
+        } else if (env == globals) {
+            out.writeByte(GLOBALS);
+        } else if (!writeReference(env)) {
+            Map<SymbolExpression, Expression> bindings = env.bindings();
+            out.writeByte(bindings == null ? FRAME : BINDINGS);
+            writeEnvironment(env.enclosingEnvironment);
+            if (writeIdentity(env)) {
+                return;
+            }
+
+            if (bindings == null) {
+                out.writeInt(env.slots.length);
+                for (Expression value : env.slots) {
+                    writeExpression(value);
+                }
+            } else {
+                out.writeInt(bindings.size());
+                for (Map.Entry<SymbolExpression, Expression> binding : bindings.entrySet()) {
+                    writeSymbol(binding.getKey());
+                    writeExpression(binding.getValue());
+                }
+            }
+        }
+    }
+
+    public void writeNode(Node node) throws IOException {
+        if (node == null) {
+            out.writeByte(NULL);
+        } else if (!writeReference(node)) {
+            node.write(this);
+        }
+    }
+
+    public void writeNodes(Node[] nodes) throws IOException {
+        out.writeInt(nodes.length);
+        for (Node node : nodes) {
+            writeNode(node);
+        }
+    }
+
+    public void writeRoot(Node body) throws IOException {
+        out.writeByte(ROOT);
+        writeNode(body);
+    }
+
+    public void writeConstant(Expression value) throws IOException {
+        out.writeByte(CONSTANT);
+        writeExpression(value);
+    }
+
+    public void writeLocalRead(SymbolExpression name, int depth, int slot) throws IOException {
+        out.writeByte(LOCAL_READ);
+        writeSymbol(name);
+        out.writeInt(depth);
+        out.writeInt(slot);
+    }
+
+    public void writeLocalWrite(int depth, int slot, Node value) throws IOException {
+        out.writeByte(LOCAL_WRITE);
+        out.writeInt(depth);
+        out.writeInt(slot);
+        writeNode(value);
+    }
+
+    public void writeGlobalRead(SymbolExpression name, int depth) throws IOException {
+        out.writeByte(GLOBAL_READ);
+        writeSymbol(name);
+        out.writeInt(depth);
+    }
+
+    public void writeGlobalWrite(SymbolExpression name, int depth, boolean define, Node value) throws IOException {
+        out.writeByte(GLOBAL_WRITE);
+        writeSymbol(name);
+        out.writeInt(depth);
+        out.writeBoolean(define);
+        writeNode(value);
+    }
+
+    public void writeIf(Node condition, Node consequent, Node alternative) throws IOException {
+        out.writeByte(IF);
+        writeNode(condition);
+        writeNode(consequent);
+        writeNode(alternative);
+    }
+
+    public void writeSequence(Node[] body) throws IOException {
+        out.writeByte(SEQUENCE);
+        writeNodes(body);
+    }
+
+    public void writeLambda(LambdaNode lambda, Node body) throws IOException {
+        out.writeByte(LAMBDA);
+        writeNode(body);
+        out.writeInt(lambda.frameSize);
+        out.writeInt(lambda.required);
+        out.writeBoolean(lambda.rest);
+        register(lambda);
+    }
+
+    public void writeCall(Node operator, Node[] operands, boolean tail) throws IOException {
+        out.writeByte(CALL);
+        writeNode(operator);
+        writeNodes(operands);
+        out.writeBoolean(tail);
+    }
+
+    public void writePrimitiveCall(SymbolExpression name, int depth, Node[] operands, boolean tail) throws IOException {
+        out.writeByte(PRIMITIVE_CALL);
+        writeSymbol(name);
+        out.writeInt(depth);
+        writeNodes(operands);
+        out.writeBoolean(tail);
+    }
+
+    private void writeProcedure(CompoundProcedureExpression procedure) throws IOException {
+        if (writeReference(procedure)) {
+            return;
+        }
+        out.writeByte(PROCEDURE);
+        writeEnvironment(procedure.environment());
+        writeNode(procedure.lambda());
+        writeIdentity(procedure);
+    }
+
+    /**
+     * Writes the elements of a list one cell at a time, ending with the empty list or a reference to a cell that
+     * has already been written.
+     */
+    private void writeCons(Cons<Expression> cons) throws IOException {
+        while (!cons.isEmpty()) {
+            if (writeReference(cons)) {
+                return;
+            }
+            out.writeByte(CONS);
+            register(cons);
+            writeExpression(cons.car());
+            cons = cons.cdr();
+        }
+        out.writeByte(EMPTY);
+    }
+
+    /**
+     * Writes a vector after registering it, so that elements can refer back to the vector that contains them.
+     */
+    private void writeVector(VectorExpression vector) throws IOException {
+        if (writeReference(vector)) {
+            return;
+        }
+        out.writeByte(VECTOR);
+        register(vector);
+        out.writeInt(vector.value.length);
+        for (Expression element : vector.value) {
+            writeExpression(element);
+        }
+    }
+
+    /**
+     * Writes the entries of a table rather than its slots, since the slots of an {@code eq?} table depend on the
+     * identity of its keys.
+     */
+    private void writeHashTable(HashTableExpression table) throws IOException {
+        if (writeReference(table)) {
+            return;
+        }
+        out.writeByte(HASH_TABLE);
+        register(table);
+        out.writeByte(table.equivalence.ordinal());
+        List<Expression> keys = new ArrayList<>(table.size());
+        List<Expression> values = new ArrayList<>(table.size());
+        table.forEach((key, value) -> {
+            keys.add(key);
+            values.add(value);
+        });
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            writeExpression(keys.get(i));
+            writeExpression(values.get(i));
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean writeReference(Object object) throws IOException {
+        Integer index = indexes.get(object);
+        if (index == null) {
+            return false;
+        }
+        out.writeByte(REF);
+        out.writeInt(index);
+        return true;
+    }
+
+    /**
+     * Ends an object whose parts have been written. Its parts may have referred back to the object and written it
+     * already, in which case the copy being read is replaced with the earlier one. Returns whether that happened.
+     */
+    private boolean writeIdentity(Object object) throws IOException {
+        Integer index = indexes.get(object);
+        out.writeBoolean(index != null);
+        if (index != null) {
+            out.writeInt(index);
+            return true;
+        }
+        register(object);
+        return false;
+    }
+
+    private void register(Object object) {
+        indexes.put(object, indexes.size());
+    }
+}
@@ -0,0 +1,53 @@
+package schemette.image;
+
+/**
+ * The tags that start each value in an image.
+ */
+final class Tags {
+    static final String MAGIC = "schemette-image";
+    /**
+     * Changes whenever the layout of an image or the meaning of the nodes in it changes.
+     */
+    static final int VERSION = 5;
+
+    static final byte NULL = 0;
+    static final byte REF = 1;
+
+    static final byte NONE = 2;
+    static final byte TRUE = 3;
+    static final byte FALSE = 4;
+    static final byte NUMBER = 5;
+    static final byte STRING = 6;
+    static final byte SYMBOL = 7;
+    static final byte NIL = 8;
+    static final byte LIST = 9;
+    static final byte PRIMITIVE = 10;
+    static final byte PROCEDURE = 11;
+
+    static final byte CONS = 12;
+    static final byte EMPTY = 13;
+
+    static final byte GLOBALS = 14;
+    static final byte FRAME = 15;
+    static final byte BINDINGS = 16;
+
+    static final byte ROOT = 17;
+    static final byte CONSTANT = 18;
+    static final byte LOCAL_READ = 19;
+    static final byte LOCAL_WRITE = 20;
+    static final byte GLOBAL_READ = 21;
+    static final byte GLOBAL_WRITE = 22;
+    static final byte IF = 23;
+    static final byte SEQUENCE = 24;
+    static final byte LAMBDA = 25;
+    static final byte CALL = 26;
+    static final byte PRIMITIVE_CALL = 27;
+
+    static final byte BIGNUM = 28;
+    static final byte FLONUM = 29;
+    static final byte VECTOR = 30;
+    static final byte HASH_TABLE = 31;
+
+    private Tags() {
+    }
+}
@@ -0,0 +1,220 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.expressions.ProcedureExpression;
+import schemette.expressions.TailCall;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A procedure call. Calls with up to four operands go through the fixed arity entry point of the procedure, so
+ * that they don't allocate an argument list.
+ * <p>
+ * In tail position a call to a compound procedure is returned to the caller's trampoline as a {@link TailCall}.
+ * Primitives are called directly, and any tail call they return is passed on as is.
+ */
+public abstract class CallNode extends Node {
+    private static final MethodHandle[] CALLS = {
+            findCall("call0", 0),
+            findCall("call1", 1),
+            findCall("call2", 2),
+            findCall("call3", 3),
+            findCall("call4", 4)
+    };
+    private static final MethodHandle CALL = Handles.findStatic(MethodHandles.lookup(), CallNode.class, "call",
+            MethodType.methodType(Expression.class, ProcedureExpression.class, Expression[].class, boolean.class));
+
+    protected final Node operator;
+    protected volatile Node[] operands;
+    protected final boolean tail;
+
+    private CallNode(Node operator, Node[] operands, boolean tail) {
+        this.operator = adopt(operator);
+        this.operands = adopt(operands);
+        this.tail = tail;
+    }
+
+    public static CallNode create(Node operator, Node[] operands, boolean tail) {
+        switch (operands.length) {
+            case 0:
+                return new Call0(operator, operands, tail);
+            case 1:
+                return new Call1(operator, operands, tail);
+            case 2:
+                return new Call2(operator, operands, tail);
+            case 3:
+                return new Call3(operator, operands, tail);
+            case 4:
+                return new Call4(operator, operands, tail);
+            default:
+                return new CallN(operator, operands, tail);
+        }
+    }
+
+    @Override
+    public MethodHandle compile() {
+        Node[] operands = this.operands;
+        MethodHandle target;
+        if (operands.length < CALLS.length) {
+            target = MethodHandles.insertArguments(CALLS[operands.length], operands.length + 1, tail);
+        } else {
+            target = MethodHandles.insertArguments(CALL, 2, tail).asCollector(Expression[].class, operands.length);
+        }
+
+        MethodHandle[] filters = new MethodHandle[operands.length + 1];
+        filters[0] = MethodHandles.filterReturnValue(operator.compile(), Handles.PROCEDURE);
+        for (int i = 0; i < operands.length; i++) {
+            filters[i + 1] = operands[i].compile();
+        }
+        return Handles.spread(target, filters);
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeCall(operator, operands, tail);
+    }
+
+    /**
+     * The operator is final so that the call is fully constructed wherever it is seen. Replacing it replaces the
+     * call with a new one instead.
+     */
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (operator == oldChild) {
+            replace(create(newChild, operands, tail));
+        } else {
+            operands = replaceChild(operands, oldChild, newChild);
+        }
+    }
+
+    private static MethodHandle findCall(String name, int arity) {
+        Class<?>[] parameters = new Class<?>[arity + 2];
+        parameters[0] = ProcedureExpression.class;
+        for (int i = 1; i <= arity; i++) {
+            parameters[i] = Expression.class;
+        }
+        parameters[arity + 1] = boolean.class;
+        return Handles.findStatic(MethodHandles.lookup(), CallNode.class, name, MethodType.methodType(Expression.class, parameters));
+    }
+
+    private static Expression call0(ProcedureExpression procedure, boolean tail) {
+        if (tail) {
+            return procedure.isCompound() ? new TailCall(procedure, new Expression[0]) : procedure.invoke0();
+        }
+        return ProcedureExpression.trampoline(procedure.invoke0());
+    }
+
+    private static Expression call1(ProcedureExpression procedure, Expression a, boolean tail) {
+        if (tail) {
+            return procedure.isCompound() ? new TailCall(procedure, new Expression[]{a}) : procedure.invoke1(a);
+        }
+        return ProcedureExpression.trampoline(procedure.invoke1(a));
+    }
+
+    private static Expression call2(ProcedureExpression procedure, Expression a, Expression b, boolean tail) {
+        if (tail) {
+            return procedure.isCompound() ? new TailCall(procedure, new Expression[]{a, b}) : procedure.invoke2(a, b);
+        }
+        return ProcedureExpression.trampoline(procedure.invoke2(a, b));
+    }
+
+    private static Expression call3(ProcedureExpression procedure, Expression a, Expression b, Expression c, boolean tail) {
+        if (tail) {
+            return procedure.isCompound() ? new TailCall(procedure, new Expression[]{a, b, c}) : procedure.invoke3(a, b, c);
+        }
+        return ProcedureExpression.trampoline(procedure.invoke3(a, b, c));
+    }
+
+    private static Expression call4(ProcedureExpression procedure, Expression a, Expression b, Expression c, Expression d, boolean tail) {
+        if (tail) {
+            return procedure.isCompound() ? new TailCall(procedure, new Expression[]{a, b, c, d}) : procedure.invoke4(a, b, c, d);
+        }
+        return ProcedureExpression.trampoline(procedure.invoke4(a, b, c, d));
+    }
+
+    private static Expression call(ProcedureExpression procedure, Expression[] args, boolean tail) {
+        if (tail) {
+            return procedure.isCompound() ? new TailCall(procedure, args) : procedure.invoke(args);
+        }
+        return ProcedureExpression.trampoline(procedure.invoke(args));
+    }
+
+    private static final class Call0 extends CallNode {
+        Call0(Node operator, Node[] operands, boolean tail) {
+            super(operator, operands, tail);
+        }
+
+        @Override
+        public Expression execute(Environment env) {
+            return call0(operator.execute(env).procedure(), tail);
+        }
+    }
+
+    private static final class Call1 extends CallNode {
+        Call1(Node operator, Node[] operands, boolean tail) {
+            super(operator, operands, tail);
+        }
+
+        @Override
+        public Expression execute(Environment env) {
+            return call1(operator.execute(env).procedure(), operands[0].execute(env), tail);
+        }
+    }
+
+    private static final class Call2 extends CallNode {
+        Call2(Node operator, Node[] operands, boolean tail) {
+            super(operator, operands, tail);
+        }
+
+        @Override
+        public Expression execute(Environment env) {
+            return call2(operator.execute(env).procedure(), operands[0].execute(env), operands[1].execute(env), tail);
+        }
+    }
+
+    private static final class Call3 extends CallNode {
+        Call3(Node operator, Node[] operands, boolean tail) {
+            super(operator, operands, tail);
+        }
+
+        @Override
+        public Expression execute(Environment env) {
+            return call3(operator.execute(env).procedure(), operands[0].execute(env), operands[1].execute(env),
+                    operands[2].execute(env), tail);
+        }
+    }
+
+    private static final class Call4 extends CallNode {
+        Call4(Node operator, Node[] operands, boolean tail) {
+            super(operator, operands, tail);
+        }
+
+        @Override
+        public Expression execute(Environment env) {
+            return call4(operator.execute(env).procedure(), operands[0].execute(env), operands[1].execute(env),
+                    operands[2].execute(env), operands[3].execute(env), tail);
+        }
+    }
+
+    private static final class CallN extends CallNode {
+        CallN(Node operator, Node[] operands, boolean tail) {
+            super(operator, operands, tail);
+        }
+
+        @Override
+        public Expression execute(Environment env) {
+            ProcedureExpression procedure = operator.execute(env).procedure();
+            Node[] operands = this.operands;
+            Expression[] args = new Expression[operands.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = operands[i].execute(env);
+            }
+            return call(procedure, args, tail);
+        }
+    }
+}
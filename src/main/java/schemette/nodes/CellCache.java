@@ -0,0 +1,60 @@
+package schemette.nodes;
+
+import schemette.environment.Cell;
+import schemette.environment.Environment;
+import schemette.exception.VariableNotDefinedException;
+import schemette.expressions.SymbolExpression;
+
+/**
+ * Remembers the cell a global name resolved to, for the environment it was resolved in, until a definition hides
+ * a binding somewhere.
+ */
+class CellCache {
+    final SymbolExpression name;
+    final int depth;
+    private Entry entry;
+
+    CellCache(SymbolExpression name, int depth) {
+        this.name = name;
+        this.depth = depth;
+    }
+
+    Cell lookup(Environment env) {
+        Cell cell = find(env);
+        if (cell == null) {
+            throw new VariableNotDefinedException(name.value);
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the cell of the name, looked up from the environment {@code depth} frames up, or {@code null} if the
+     * name is not bound.
+     */
+    Cell find(Environment env) {
+        Environment globals = env.ancestor(depth);
+        int shadowings = Environment.shadowingDefinitions();
+        Entry e = entry;
+        if (e != null && e.globals == globals && e.shadowings == shadowings) {
+            return e.cell;
+        }
+
+        Cell cell = globals.lookupCell(name);
+        if (cell != null) {
+            entry = new Entry(globals, cell, shadowings);
+        }
+        return cell;
+    }
+
+    private static class Entry {
+        final Environment globals;
+        final Cell cell;
+        final int shadowings;
+
+        Entry(Environment globals, Cell cell, int shadowings) {
+            this.globals = globals;
+            this.cell = cell;
+            this.shadowings = shadowings;
+        }
+    }
+}
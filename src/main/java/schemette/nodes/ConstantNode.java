@@ -0,0 +1,31 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+
+public class ConstantNode extends Node {
+    private final Expression value;
+
+    public ConstantNode(Expression value) {
+        this.value = value;
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        return value;
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeConstant(value);
+    }
+
+    @Override
+    public MethodHandle compile() {
+        return Handles.constant(value);
+    }
+}
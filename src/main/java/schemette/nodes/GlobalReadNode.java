@@ -0,0 +1,31 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.expressions.SymbolExpression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+
+/**
+ * Reads a variable that is not bound by any enclosing procedure, starting from the environment the outermost
+ * expression was evaluated in, {@code depth} frames up. The cell of the variable is looked up once and then read
+ * directly.
+ */
+public class GlobalReadNode extends Node {
+    private final CellCache cell;
+
+    public GlobalReadNode(SymbolExpression name, int depth) {
+        this.cell = new CellCache(name, depth);
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        return cell.lookup(env).get();
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeGlobalRead(cell.name, cell.depth);
+    }
+}
@@ -0,0 +1,47 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.expressions.SymbolExpression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+
+/**
+ * Assigns a variable that is not bound by any enclosing procedure with {@code set!}, or defines one in the
+ * environment a top-level expression is evaluated in.
+ */
+public class GlobalWriteNode extends Node {
+    private final CellCache cell;
+    private final boolean define;
+    private volatile Node value;
+
+    public GlobalWriteNode(SymbolExpression name, int depth, boolean define, Node value) {
+        this.cell = new CellCache(name, depth);
+        this.define = define;
+        this.value = adopt(value);
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        Expression result = value.execute(env);
+        if (define) {
+            env.ancestor(cell.depth).define(cell.name, result);
+        } else {
+            cell.lookup(env).set(result);
+        }
+        return Expression.none();
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeGlobalWrite(cell.name, cell.depth, define, value);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (value == oldChild) {
+            value = newChild;
+        }
+    }
+}
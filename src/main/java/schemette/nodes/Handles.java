@@ -0,0 +1,65 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.BooleanExpression;
+import schemette.expressions.Expression;
+import schemette.expressions.ProcedureExpression;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles that compiled nodes are built from. Every compiled node has the type {@link #NODE}.
+ */
+class Handles {
+    static final MethodType NODE = MethodType.methodType(Expression.class, Environment.class);
+
+    static final MethodHandle EXECUTE = findVirtual(MethodHandles.lookup(), Node.class, "execute", NODE);
+    static final MethodHandle PROCEDURE = findVirtual(MethodHandles.lookup(), Expression.class, "procedure", MethodType.methodType(ProcedureExpression.class));
+    static final MethodHandle IS_TRUTHY = findStatic(MethodHandles.lookup(), Handles.class, "isTruthy", MethodType.methodType(boolean.class, Expression.class));
+
+    static MethodHandle constant(Expression value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(Expression.class, value), 0, Environment.class);
+    }
+
+    /**
+     * Evaluates every handle on the same environment, in order, and returns the result of the last one.
+     */
+    static MethodHandle sequence(MethodHandle[] handles) {
+        MethodHandle result = handles[handles.length - 1];
+        for (int i = handles.length - 2; i >= 0; i--) {
+            result = MethodHandles.foldArguments(result, handles[i].asType(MethodType.methodType(void.class, Environment.class)));
+        }
+        return result;
+    }
+
+    /**
+     * Adapts a handle taking one argument for each of {@code filters} into one taking the environment, which is
+     * passed to every filter.
+     */
+    static MethodHandle spread(MethodHandle target, MethodHandle[] filters) {
+        MethodHandle filtered = MethodHandles.filterArguments(target, 0, filters);
+        return MethodHandles.permuteArguments(filtered, NODE, new int[filters.length]);
+    }
+
+    static MethodHandle findVirtual(MethodHandles.Lookup lookup, Class<?> type, String name, MethodType methodType) {
+        try {
+            return lookup.findVirtual(type, name, methodType);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle findStatic(MethodHandles.Lookup lookup, Class<?> type, String name, MethodType methodType) {
+        try {
+            return lookup.findStatic(type, name, methodType);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isTruthy(Expression exp) {
+        return exp != BooleanExpression.FALSE;
+    }
+}
@@ -0,0 +1,59 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.BooleanExpression;
+import schemette.expressions.Expression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+public class IfNode extends Node {
+    private volatile Node condition;
+    private volatile Node consequent;
+    private volatile Node alternative;
+
+    /**
+     * @param alternative the node to execute when the condition is false, or {@code null} to return nothing
+     */
+    public IfNode(Node condition, Node consequent, Node alternative) {
+        this.condition = adopt(condition);
+        this.consequent = adopt(consequent);
+        this.alternative = adopt(alternative);
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        if (condition.execute(env) != BooleanExpression.FALSE) {
+            return consequent.execute(env);
+        } else if (alternative != null) {
+            return alternative.execute(env);
+        }
+        return Expression.none();
+    }
+
+    @Override
+    public MethodHandle compile() {
+        return MethodHandles.guardWithTest(
+                MethodHandles.filterReturnValue(condition.compile(), Handles.IS_TRUTHY),
+                consequent.compile(),
+                alternative != null ? alternative.compile() : Handles.constant(Expression.none()));
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeIf(condition, consequent, alternative);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (condition == oldChild) {
+            condition = newChild;
+        } else if (consequent == oldChild) {
+            consequent = newChild;
+        } else if (alternative == oldChild) {
+            alternative = newChild;
+        }
+    }
+}
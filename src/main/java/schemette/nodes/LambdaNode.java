@@ -0,0 +1,89 @@
+package schemette.nodes;
+
+import com.google.common.base.Throwables;
+import schemette.environment.Environment;
+import schemette.expressions.CompoundProcedureExpression;
+import schemette.expressions.Expression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Creates a procedure closing over the current environment. The procedures keep a reference to this node and
+ * execute its body, so specializations of the body are shared by every closure created from the same lambda.
+ * <p>
+ * Frames have {@code frameSize} slots: the {@code required} fixed parameters, followed by the rest parameter if
+ * there is one and then the internal definitions of the body.
+ * <p>
+ * Once the body has been executed {@code schemette.compile.threshold} times, 1000 by default, it is
+ * {@link Node#compile compiled} and run as a method handle from then on, until a node in it is replaced. The count
+ * is kept here rather than in the procedures, so that closures created from the same lambda warm up together.
+ */
+public class LambdaNode extends Node {
+    private static final int COMPILE_THRESHOLD = Integer.getInteger("schemette.compile.threshold", 1000);
+
+    public final int frameSize;
+    public final int required;
+    public final boolean rest;
+    private volatile Node body;
+    private volatile MethodHandle compiled;
+    private int calls;
+
+    public LambdaNode(Node body, int frameSize, int required, boolean rest) {
+        this.body = adopt(body);
+        this.frameSize = frameSize;
+        this.required = required;
+        this.rest = rest;
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        return new CompoundProcedureExpression(this, env);
+    }
+
+    public Expression executeBody(Environment frame) {
+        MethodHandle handle = compiled;
+        if (handle != null) {
+            try {
+                return (Expression) handle.invokeExact(frame);
+            } catch (Throwable t) {
+                throw Throwables.propagate(t);
+            }
+        }
+
+        if (++calls >= COMPILE_THRESHOLD) {
+            compileBody();
+        }
+        return body.execute(frame);
+    }
+
+    /**
+     * Compiles the body under the same lock as {@link #invalidate}, so that a handle compiled from the tree as it
+     * was before a replacement is never stored after the replacement has cleared it. The call count is only
+     * approximate when several threads run the body, which merely moves the point at which it is compiled.
+     */
+    private synchronized void compileBody() {
+        if (compiled == null) {
+            compiled = body.compile();
+        }
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeLambda(this, body);
+    }
+
+    @Override
+    protected synchronized void invalidate() {
+        compiled = null;
+        calls = 0;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (body == oldChild) {
+            body = newChild;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.exception.VariableNotDefinedException;
+import schemette.expressions.Expression;
+import schemette.expressions.SymbolExpression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+
+/**
+ * Reads a variable from the slot of an enclosing procedure frame. A slot is empty only when an internal definition
+ * is referred to before it has been evaluated.
+ */
+public class LocalReadNode extends Node {
+    private final SymbolExpression name;
+    private final int depth;
+    private final int slot;
+
+    public LocalReadNode(SymbolExpression name, int depth, int slot) {
+        this.name = name;
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        Expression value = env.ancestor(depth).slots[slot];
+        if (value == null) {
+            throw new VariableNotDefinedException(name.value);
+        }
+        return value;
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeLocalRead(name, depth, slot);
+    }
+}
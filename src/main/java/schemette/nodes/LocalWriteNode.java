@@ -0,0 +1,40 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+
+/**
+ * Assigns a slot of an enclosing procedure frame, for both {@code set!} and internal definitions.
+ */
+public class LocalWriteNode extends Node {
+    private final int depth;
+    private final int slot;
+    private volatile Node value;
+
+    public LocalWriteNode(int depth, int slot, Node value) {
+        this.depth = depth;
+        this.slot = slot;
+        this.value = adopt(value);
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        env.ancestor(depth).slots[slot] = value.execute(env);
+        return Expression.none();
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeLocalWrite(depth, slot, value);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (value == oldChild) {
+            value = newChild;
+        }
+    }
+}
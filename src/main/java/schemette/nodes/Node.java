@@ -0,0 +1,106 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * An executable node of an analyzed expression. Nodes know their parent, so a node that finds a better
+ * implementation of itself for the values it has seen can {@link #replace} itself in the tree.
+ * <p>
+ * Nodes can also be {@link #compile compiled} into a method handle. Replacing a node invalidates whatever has been
+ * compiled from the nodes above it.
+ * <p>
+ * A tree is shared by every thread that runs its code, such as the tasks started by {@code future} and
+ * {@code pmap}, so replacements are published safely: each field holding a child that can be replaced is volatile,
+ * and arrays of children are copied on replacement and stored in a volatile field rather than changed in place. A
+ * thread that reaches a replacement through its parent therefore sees it fully constructed. Children are replaced
+ * while holding the lock of their parent, so that replacing two children of a node at once doesn't undo either
+ * change.
+ */
+public abstract class Node {
+    private volatile Node parent;
+
+    public abstract Expression execute(Environment env);
+
+    /**
+     * Returns a method handle of type {@code (Environment)Expression} that does the same as {@link #execute}. Nodes
+     * that have nothing better to offer are called through {@code execute}.
+     */
+    public MethodHandle compile() {
+        return Handles.EXECUTE.bindTo(this);
+    }
+
+    /**
+     * Writes how to create this node again to an image.
+     */
+    public abstract void write(ImageOutput out) throws IOException;
+
+    public Node getParent() {
+        return parent;
+    }
+
+    protected <T extends Node> T adopt(T child) {
+        if (child != null) {
+            ((Node) child).parent = this;
+        }
+        return child;
+    }
+
+    protected <T extends Node> T[] adopt(T[] children) {
+        for (T child : children) {
+            adopt(child);
+        }
+        return children;
+    }
+
+    /**
+     * Replaces this node with another one in its parent. Replacing a node that has already been replaced, for
+     * example by another thread, leaves the tree as it is.
+     */
+    public <T extends Node> T replace(T replacement) {
+        Node parent = this.parent;
+        ((Node) replacement).parent = parent;
+        if (parent != null) {
+            synchronized (parent) {
+                parent.replaceChild(this, replacement);
+            }
+            parent.invalidate();
+        }
+        return replacement;
+    }
+
+    /**
+     * Called when a node below this one has been replaced.
+     */
+    protected void invalidate() {
+        if (parent != null) {
+            parent.invalidate();
+        }
+    }
+
+    /**
+     * Replaces {@code oldChild} with {@code newChild} if it is still a child of this node. Called with the lock of
+     * this node held.
+     */
+    protected void replaceChild(Node oldChild, Node newChild) {
+        throw new UnsupportedOperationException(String.format("%s has no children", getClass().getSimpleName()));
+    }
+
+    /**
+     * Returns a copy of an array of children with {@code oldChild} replaced by {@code newChild}, for nodes to store
+     * in place of the array they read their children from.
+     */
+    protected static Node[] replaceChild(Node[] children, Node oldChild, Node newChild) {
+        Node[] copy = children.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (copy[i] == oldChild) {
+                copy[i] = newChild;
+            }
+        }
+        return copy;
+    }
+}
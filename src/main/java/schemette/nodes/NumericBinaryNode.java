@@ -0,0 +1,111 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.environment.NumericOperator;
+import schemette.expressions.Expression;
+import schemette.expressions.NumberExpression.Fixnum;
+import schemette.expressions.NumberExpression.Flonum;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * An inlined binary arithmetic or comparison primitive, specialized for operands that are both fixnums or both
+ * flonums. The operation is applied to the unboxed values directly, and other combinations of numbers are left to
+ * the primitive. The first time an operand that isn't a number is seen the node replaces itself with a
+ * {@link PrimitiveCallNode}, which leaves checking the operands to the primitive.
+ */
+public class NumericBinaryNode extends Node {
+    private static final MethodType BINARY = MethodType.methodType(Expression.class, Expression.class, Expression.class);
+    private static final MethodType TEST = MethodType.methodType(boolean.class, Expression.class, Expression.class);
+    private static final MethodHandle BOTH_FIXNUMS = Handles.findStatic(MethodHandles.lookup(), NumericBinaryNode.class, "bothFixnums", TEST);
+    private static final MethodHandle BOTH_FLONUMS = Handles.findStatic(MethodHandles.lookup(), NumericBinaryNode.class, "bothFlonums", TEST);
+    private static final MethodHandle FIXNUM = Handles.findStatic(MethodHandles.lookup(), NumericBinaryNode.class, "fixnum",
+            MethodType.methodType(long.class, Expression.class));
+    private static final MethodHandle FLONUM = Handles.findStatic(MethodHandles.lookup(), NumericBinaryNode.class, "flonum",
+            MethodType.methodType(double.class, Expression.class));
+    private static final MethodHandle APPLY_FIXNUMS = Handles.findVirtual(MethodHandles.lookup(), NumericOperator.class, "applyFixnums",
+            MethodType.methodType(Expression.class, long.class, long.class));
+    private static final MethodHandle APPLY_FLONUMS = Handles.findVirtual(MethodHandles.lookup(), NumericOperator.class, "applyFlonums",
+            MethodType.methodType(Expression.class, double.class, double.class));
+    private static final MethodHandle APPLY = Handles.findVirtual(MethodHandles.lookup(), NumericBinaryNode.class, "apply", BINARY);
+
+    private final PrimitiveGuard guard;
+    private final NumericOperator operator;
+    private volatile Node left;
+    private volatile Node right;
+    private final boolean tail;
+
+    NumericBinaryNode(PrimitiveGuard guard, NumericOperator operator, Node left, Node right, boolean tail) {
+        this.guard = guard;
+        this.operator = operator;
+        this.left = adopt(left);
+        this.right = adopt(right);
+        this.tail = tail;
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        if (!guard.holds(env)) {
+            return replace(guard.genericCall(new Node[]{left, right}, tail)).execute(env);
+        }
+
+        return apply(left.execute(env), right.execute(env));
+    }
+
+    private Expression apply(Expression a, Expression b) {
+        if (bothFixnums(a, b)) {
+            return operator.applyFixnums(fixnum(a), fixnum(b));
+        } else if (bothFlonums(a, b)) {
+            return operator.applyFlonums(flonum(a), flonum(b));
+        } else if (a.isNumber() && b.isNumber()) {
+            return guard.primitive.invoke2(a, b);
+        }
+
+        replace(new PrimitiveCallNode(guard, new Node[]{left, right}, tail));
+        return guard.primitive.invoke2(a, b);
+    }
+
+    @Override
+    public MethodHandle compile() {
+        MethodHandle fixnums = MethodHandles.filterArguments(APPLY_FIXNUMS.bindTo(operator), 0, FIXNUM, FIXNUM);
+        MethodHandle flonums = MethodHandles.filterArguments(APPLY_FLONUMS.bindTo(operator), 0, FLONUM, FLONUM);
+        MethodHandle apply = MethodHandles.guardWithTest(BOTH_FIXNUMS, fixnums,
+                MethodHandles.guardWithTest(BOTH_FLONUMS, flonums, APPLY.bindTo(this)));
+        MethodHandle call = Handles.spread(apply, new MethodHandle[]{left.compile(), right.compile()});
+        return MethodHandles.guardWithTest(guard.compile(), call, Handles.EXECUTE.bindTo(this));
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        guard.write(out, new Node[]{left, right}, tail);
+    }
+
+    private static boolean bothFixnums(Expression a, Expression b) {
+        return a instanceof Fixnum && b instanceof Fixnum;
+    }
+
+    private static boolean bothFlonums(Expression a, Expression b) {
+        return a instanceof Flonum && b instanceof Flonum;
+    }
+
+    private static long fixnum(Expression e) {
+        return ((Fixnum) e).value;
+    }
+
+    private static double flonum(Expression e) {
+        return ((Flonum) e).value;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (left == oldChild) {
+            left = newChild;
+        } else if (right == oldChild) {
+            right = newChild;
+        }
+    }
+}
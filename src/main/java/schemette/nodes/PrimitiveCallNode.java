@@ -0,0 +1,105 @@
+package schemette.nodes;
+
+import schemette.environment.DefaultEnvironment;
+import schemette.environment.Environment;
+import schemette.environment.NumericOperator;
+import schemette.expressions.Expression;
+import schemette.expressions.ProcedureExpression;
+import schemette.expressions.SymbolExpression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Calls a primitive through its entry point directly, without looking it up, for as long as its name is bound to
+ * it. Once the guard fails the node replaces itself with a generic call.
+ */
+public class PrimitiveCallNode extends Node {
+    private static final MethodHandle[] INVOKE = {
+            findInvoke("invoke0", 0),
+            findInvoke("invoke1", 1),
+            findInvoke("invoke2", 2),
+            findInvoke("invoke3", 3)
+    };
+
+    private final PrimitiveGuard guard;
+    private volatile Node[] operands;
+    private final boolean tail;
+
+    PrimitiveCallNode(PrimitiveGuard guard, Node[] operands, boolean tail) {
+        this.guard = guard;
+        this.operands = adopt(operands);
+        this.tail = tail;
+    }
+
+    /**
+     * Creates the node for a call to a global name, which is inlined if the name is bound to an inlinable
+     * primitive in new environments. Binary arithmetic and comparisons start out specialized for fixnums and
+     * flonums.
+     */
+    public static Node create(SymbolExpression name, int depth, Node[] operands, boolean tail) {
+        ProcedureExpression primitive = DefaultEnvironment.inlinablePrimitive(name);
+        if (primitive == null || operands.length > 3) {
+            return CallNode.create(new GlobalReadNode(name, depth), operands, tail);
+        }
+
+        PrimitiveGuard guard = new PrimitiveGuard(name, primitive, depth);
+        if (primitive instanceof NumericOperator && operands.length == 2) {
+            return new NumericBinaryNode(guard, (NumericOperator) primitive, operands[0], operands[1], tail);
+        }
+        return new PrimitiveCallNode(guard, operands, tail);
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        Node[] operands = this.operands;
+        if (!guard.holds(env)) {
+            return replace(guard.genericCall(operands, tail)).execute(env);
+        }
+
+        ProcedureExpression primitive = guard.primitive;
+        switch (operands.length) {
+            case 0:
+                return primitive.invoke0();
+            case 1:
+                return primitive.invoke1(operands[0].execute(env));
+            case 2:
+                return primitive.invoke2(operands[0].execute(env), operands[1].execute(env));
+            default:
+                return primitive.invoke3(operands[0].execute(env), operands[1].execute(env), operands[2].execute(env));
+        }
+    }
+
+    @Override
+    public MethodHandle compile() {
+        Node[] operands = this.operands;
+        MethodHandle[] filters = new MethodHandle[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            filters[i] = operands[i].compile();
+        }
+        MethodHandle call = Handles.spread(INVOKE[operands.length].bindTo(guard.primitive), filters);
+        return MethodHandles.guardWithTest(guard.compile(), call, Handles.EXECUTE.bindTo(this));
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        guard.write(out, operands, tail);
+    }
+
+    private static MethodHandle findInvoke(String name, int arity) {
+        Class<?>[] parameters = new Class<?>[arity];
+        for (int i = 0; i < arity; i++) {
+            parameters[i] = Expression.class;
+        }
+        return Handles.findVirtual(MethodHandles.lookup(), ProcedureExpression.class, name,
+                MethodType.methodType(Expression.class, parameters));
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        operands = replaceChild(operands, oldChild, newChild);
+    }
+}
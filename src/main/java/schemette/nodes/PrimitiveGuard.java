@@ -0,0 +1,54 @@
+package schemette.nodes;
+
+import schemette.environment.Cell;
+import schemette.environment.Environment;
+import schemette.expressions.ProcedureExpression;
+import schemette.expressions.SymbolExpression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Checks that a global name is still bound to the primitive a call site was inlined for.
+ */
+class PrimitiveGuard {
+    private static final MethodHandle HOLDS = Handles.findVirtual(MethodHandles.lookup(), PrimitiveGuard.class, "holds",
+            MethodType.methodType(boolean.class, Environment.class));
+
+    final ProcedureExpression primitive;
+    private final CellCache cell;
+
+    PrimitiveGuard(SymbolExpression name, ProcedureExpression primitive, int depth) {
+        this.primitive = primitive;
+        this.cell = new CellCache(name, depth);
+    }
+
+    boolean holds(Environment env) {
+        Cell c = cell.find(env);
+        return c != null && c.get() == primitive;
+    }
+
+    /**
+     * Returns a method handle of type {@code (Environment)boolean} that checks this guard.
+     */
+    MethodHandle compile() {
+        return HOLDS.bindTo(this);
+    }
+
+    /**
+     * The call a guarded node falls back to once its guard has failed.
+     */
+    CallNode genericCall(Node[] operands, boolean tail) {
+        return CallNode.create(new GlobalReadNode(cell.name, cell.depth), operands, tail);
+    }
+
+    /**
+     * Writes a guarded node as the call to the primitive it was created for.
+     */
+    void write(ImageOutput out, Node[] operands, boolean tail) throws IOException {
+        out.writePrimitiveCall(cell.name, cell.depth, operands, tail);
+    }
+}
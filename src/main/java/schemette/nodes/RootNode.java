@@ -0,0 +1,35 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+
+/**
+ * The top of an analyzed top-level expression, so that the node below it can be replaced like any other.
+ */
+public class RootNode extends Node {
+    private volatile Node body;
+
+    public RootNode(Node body) {
+        this.body = adopt(body);
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        return body.execute(env);
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeRoot(body);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (body == oldChild) {
+            body = newChild;
+        }
+    }
+}
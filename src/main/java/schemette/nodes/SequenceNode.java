@@ -0,0 +1,49 @@
+package schemette.nodes;
+
+import schemette.environment.Environment;
+import schemette.expressions.Expression;
+import schemette.image.ImageOutput;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+
+public class SequenceNode extends Node {
+    private volatile Node[] body;
+
+    public SequenceNode(Node[] body) {
+        this.body = adopt(body);
+    }
+
+    @Override
+    public Expression execute(Environment env) {
+        Expression result = Expression.none();
+        for (Node node : this.body) {
+            result = node.execute(env);
+        }
+        return result;
+    }
+
+    @Override
+    public MethodHandle compile() {
+        Node[] body = this.body;
+        if (body.length == 0) {
+            return Handles.constant(Expression.none());
+        }
+
+        MethodHandle[] handles = new MethodHandle[body.length];
+        for (int i = 0; i < body.length; i++) {
+            handles[i] = body[i].compile();
+        }
+        return Handles.sequence(handles);
+    }
+
+    @Override
+    public void write(ImageOutput out) throws IOException {
+        out.writeSequence(body);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        body = replaceChild(body, oldChild, newChild);
+    }
+}
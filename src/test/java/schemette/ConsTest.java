@@ -4,6 +4,9 @@ import com.google.common.collect.ImmutableList;
 import org.junit.Test;
 import schemette.cons.Cons;
 
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static schemette.cons.Cons.cons;
@@ -18,4 +21,33 @@ public class ConsTest {
         assertThat(list.stream().map(e -> e + 1).collect(Cons.collector()).toList(), is(ImmutableList.of(2, 3)));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void builder_keeps_insertion_order() {
+        Cons<Integer> list = Cons.<Integer>builder().add(1).add(2).add(3).build();
+
+        assertThat(list.toList(), is(ImmutableList.of(1, 2, 3)));
+        assertThat(list.size(), is(3L));
+    }
+
+    @Test
+    public void large_lists_do_not_overflow_the_stack() {
+        Cons<Integer> list = IntStream.range(0, 200000).boxed().collect(Cons.collector());
+        Cons<Integer> copy = Cons.copyOf(list);
+        copy.append(cons(0, empty()));
+
+        assertThat(list.size(), is(200000L));
+        assertThat(list.equals(Cons.copyOf(list)), is(true));
+        assertThat(list.hashCode(), is(Cons.copyOf(list).hashCode()));
+        assertThat(list.equals(copy), is(false));
+    }
+
+    @Test
+    public void parallel_stream() {
+        Cons<Integer> list = IntStream.range(0, 100000).boxed().collect(Cons.collector());
+
+        assertThat(list.spliterator().getExactSizeIfKnown(), is(100000L));
+        assertThat(list.stream().parallel().mapToLong(i -> i).sum(), is(4999950000L));
+        assertThat(list.stream().parallel().map(i -> i + 1).collect(Cons.collector()).toList(),
+                is(IntStream.range(1, 100001).boxed().collect(Collectors.toList())));
+    }
+}
@@ -1,10 +1,15 @@
 package schemette;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import schemette.cons.Cons;
 import schemette.environment.DefaultEnvironment;
+import schemette.exception.SchemeError;
+import schemette.exception.UnexpectedExpression;
 import schemette.expressions.Expression;
 import schemette.expressions.NumberExpression;
+import schemette.expressions.ProcedureExpression;
 
 import java.util.Arrays;
 import java.util.function.Function;
@@ -19,6 +24,9 @@ import static schemette.expressions.SymbolExpression.symbol;
 
 public class DefaultEnvironmentTest {
 
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
     @Test
     public void addition() {
         Function<Cons<Expression>, Expression> function = lookupFunction("+");
@@ -117,6 +125,50 @@ public class DefaultEnvironmentTest {
         assertThat(bool(false), is(function.apply(numberList(2, 3, 2))));
     }
 
+    @Test
+    public void unary_subtraction_negates() {
+        assertThat(lookupFunction("-").apply(numberList(5)), is(number(-5)));
+    }
+
+    @Test
+    public void unary_division_takes_the_reciprocal() {
+        assertThat(lookupFunction("/").apply(numberList(-1)), is(number(-1)));
+        assertThat(lookupFunction("/").apply(Cons.copyOf(new Expression[]{number(4.0)})), is(number(0.25)));
+    }
+
+    @Test
+    public void unary_division_of_exact_integer_without_reciprocal_fails() {
+        thrown.expect(SchemeError.class);
+        lookupFunction("/").apply(numberList(5));
+    }
+
+    @Test
+    public void comparison_of_single_non_number_fails() {
+        thrown.expect(UnexpectedExpression.class);
+        DefaultEnvironment.newInstance().lookup(symbol("<")).procedure().invoke1(symbol("a"));
+    }
+
+    @Test
+    public void comparison_of_single_non_number_in_array_fails() {
+        thrown.expect(UnexpectedExpression.class);
+        DefaultEnvironment.newInstance().lookup(symbol("<")).procedure().invoke(new Expression[]{symbol("a")});
+    }
+
+    @Test
+    public void empty_sum_and_product() {
+        assertThat(lookupFunction("+").apply(Cons.<Expression>empty()), is(number(0)));
+        assertThat(lookupFunction("*").apply(Cons.<Expression>empty()), is(number(1)));
+    }
+
+    @Test
+    public void two_argument_fast_path() {
+        ProcedureExpression plus = DefaultEnvironment.newInstance().lookup(symbol("+")).procedure();
+        ProcedureExpression less = DefaultEnvironment.newInstance().lookup(symbol("<")).procedure();
+
+        assertThat(plus.invoke2(number(40), number(2)), is(number(42)));
+        assertThat(less.invoke2(number(1), number(2)), is(bool(true)));
+    }
+
     @Test
     public void car() {
         Function<Cons<Expression>, Expression> function = lookupFunction("car");
@@ -124,6 +176,12 @@ public class DefaultEnvironmentTest {
         assertThat(function.apply(cons(list(numberList(1, 2, 3)), Cons.<Expression>empty())), is(number(1)));
     }
 
+    @Test
+    public void results_are_canonical_instances() {
+        assertThat(lookupFunction("<").apply(numberList(1, 2)) == bool(true), is(true));
+        assertThat(lookupFunction("+").apply(numberList(1, 2)) == number(3), is(true));
+    }
+
     private static Cons<Expression> numberList(Integer... numbers) {
         return Arrays.stream(numbers)
                 .map(NumberExpression::number)
@@ -131,6 +189,6 @@ public class DefaultEnvironmentTest {
     }
 
     private Function<Cons<Expression>, Expression> lookupFunction(String operator) {
-        return DefaultEnvironment.newInstance().lookup(symbol(operator)).procedure().lambda;
+        return DefaultEnvironment.newInstance().lookup(symbol(operator)).procedure()::apply;
     }
 }
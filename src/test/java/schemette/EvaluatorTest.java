@@ -4,6 +4,7 @@ import org.junit.Test;
 import schemette.environment.DefaultEnvironment;
 import schemette.environment.Environment;
 import schemette.expressions.*;
+import schemette.nodes.Node;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,6 +28,38 @@ public class EvaluatorTest {
         assertThat(result, is(number(123)));
     }
 
+    @Test
+    public void analyzed_expression_runs_in_different_environments() {
+        Node node = Evaluator.analyze(list(symbol("+"), symbol("x"), number(1)));
+        Environment defaults = DefaultEnvironment.newInstance();
+        defaults.define(symbol("x"), number(1));
+        Environment other = new Environment(bindings(symbol("x"), number(1)));
+        other.define(symbol("+"), DefaultEnvironment.newInstance().lookup(symbol("-")));
+
+        assertThat(node.execute(defaults), is(number(2)));
+        assertThat(node.execute(other), is(number(0)));
+        assertThat(node.execute(defaults), is(number(2)));
+    }
+
+    @Test
+    public void definition_hides_resolved_global() {
+        Environment global = DefaultEnvironment.newInstance();
+        global.define(symbol("foo"), number(1));
+        Environment local = global.extend(bindings());
+        Node read = Evaluator.analyze(symbol("foo"));
+        Node call = Evaluator.analyze(list(symbol("+"), number(1), number(2)));
+
+        assertThat(read.execute(local), is(number(1)));
+        assertThat(call.execute(local), is(number(3)));
+
+        local.define(symbol("foo"), number(2));
+        local.define(symbol("+"), global.lookup(symbol("-")));
+
+        assertThat(read.execute(local), is(number(2)));
+        assertThat(call.execute(local), is(number(-1)));
+        assertThat(read.execute(global), is(number(1)));
+    }
+
     @Test
     public void variable_lookup() {
         Environment e = new Environment(bindings(symbol("foo"), number(123)));
@@ -153,6 +186,78 @@ public class EvaluatorTest {
         assertThat(value instanceof ProcedureExpression, is(true));
     }
 
+    @Test
+    public void equal_expression_reuses_analysis() {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate(list(symbol("*"), number(6), number(7), number(1001)));
+        long hits = interpreter.analysisCacheStats().hitCount();
+
+        Expression result = interpreter.evaluate(list(symbol("*"), number(6), number(7), number(1001)));
+
+        assertThat(result, is(number(42042)));
+        assertThat(interpreter.analysisCacheStats().hitCount(), is(hits + 1));
+    }
+
+    @Test
+    public void interpreters_do_not_share_analysis() {
+        Interpreter first = new Interpreter();
+        Interpreter second = new Interpreter();
+        first.evaluate(list(symbol("*"), number(6), number(7), number(1001)));
+
+        second.evaluate(list(symbol("*"), number(6), number(7), number(1001)));
+
+        assertThat(second.analysisCacheStats().hitCount(), is(0L));
+        assertThat(second.analysisCacheStats().missCount(), is(1L));
+    }
+
+    @Test
+    public void exact_and_inexact_constants_are_analyzed_separately() {
+        Interpreter interpreter = new Interpreter();
+
+        assertThat(interpreter.evaluate(list(symbol("+"), number(1), number(1))), is(number(2)));
+        assertThat(interpreter.evaluate(list(symbol("+"), number(1.0), number(1))), is(number(2.0)));
+    }
+
+    @Test
+    public void quoted_list_is_not_shared_by_equal_expressions() {
+        Interpreter interpreter = new Interpreter();
+        ListExpression first = list(number(1), number(2));
+        ListExpression second = list(number(1), number(2));
+
+        interpreter.evaluate(list(symbol("quote"), first));
+        Expression result = interpreter.evaluate(list(symbol("quote"), second));
+        result.list().value.setCar(number(3));
+
+        assertThat(first, is(list(number(1), number(2))));
+        assertThat(second, is(list(number(3), number(2))));
+    }
+
+    @Test
+    public void vector_literal_is_not_shared_by_equal_expressions() {
+        Interpreter interpreter = new Interpreter();
+        VectorExpression first = VectorExpression.vector(number(1), number(2));
+        VectorExpression second = VectorExpression.vector(number(1), number(2));
+
+        interpreter.evaluate(first);
+        Expression result = interpreter.evaluate(second);
+        result.vector().value[0] = number(3);
+
+        assertThat(result == second, is(true));
+        assertThat(first, is(VectorExpression.vector(number(1), number(2))));
+    }
+
+    @Test
+    public void changing_evaluated_code_does_not_change_cached_code() {
+        Interpreter interpreter = new Interpreter();
+        ListExpression code = list(symbol("-"), number(1002), number(1));
+
+        assertThat(interpreter.evaluate(code), is(number(1001)));
+        code.value.cdr().setCar(number(1003));
+
+        assertThat(interpreter.evaluate(code), is(number(1002)));
+        assertThat(interpreter.evaluate(list(symbol("-"), number(1002), number(1))), is(number(1001)));
+    }
+
     private static Environment emptyEnvironment() {
 //        return new Environment(new HashMap<>());
         return DefaultEnvironment.newInstance();
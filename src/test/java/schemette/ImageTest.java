@@ -0,0 +1,168 @@
+package schemette;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static schemette.expressions.BooleanExpression.bool;
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.NumberExpression.number;
+import static schemette.expressions.StringExpression.string;
+import static schemette.expressions.SymbolExpression.symbol;
+import static schemette.expressions.VectorExpression.vector;
+
+public class ImageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void image_restores_procedures_and_data() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.load("scm/stdlib.scm");
+        interpreter.evaluate("(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))");
+        interpreter.evaluate("(define data '(1 \"two\" three #t ()))");
+
+        Interpreter restored = restore(interpreter);
+
+        assertThat(restored.evaluate("(fib 15)"), is(number(610)));
+        assertThat(restored.evaluate("(map (lambda (x) (* x x)) '(1 2 3))"), is(list(number(1), number(4), number(9))));
+        assertThat(restored.evaluate("data"),
+                is(list(number(1), string("two"), symbol("three"), bool(true), list())));
+    }
+
+    @Test
+    public void image_keeps_bignums_and_flonums() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define big 123456789012345678901234567890)");
+        interpreter.evaluate("(define (scale x) (* x 2.5))");
+
+        Interpreter restored = restore(interpreter);
+
+        assertThat(restored.evaluate("big"), is(number(new BigInteger("123456789012345678901234567890"))));
+        assertThat(restored.evaluate("(scale 2)"), is(number(5.0)));
+    }
+
+    @Test
+    public void image_keeps_state_of_closures() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define (make-counter) (let ((n 0)) (lambda () (set! n (+ n 1)) n)))");
+        interpreter.evaluate("(define counter (make-counter))");
+        interpreter.evaluate("(counter)");
+
+        Interpreter restored = restore(interpreter);
+
+        assertThat(restored.evaluate("(counter)"), is(number(2)));
+        assertThat(restored.evaluate("((make-counter))"), is(number(1)));
+    }
+
+    @Test
+    public void image_keeps_shared_and_circular_structure() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define (make-loop) (define (loop n) (if (= n 0) loop (loop (- n 1)))) loop)");
+        interpreter.evaluate("(define loop (make-loop))");
+        interpreter.evaluate("(define tail '(2 3))");
+        interpreter.evaluate("(define shared (cons 1 tail))");
+        interpreter.evaluate("(define ring (cons 1 (cons 2 (quote ()))))");
+        interpreter.evaluate("(set-cdr! (cdr ring) ring)");
+
+        Interpreter restored = restore(interpreter);
+
+        assertThat(restored.evaluate("(eq? loop (loop 3))"), is(bool(true)));
+        restored.evaluate("(set-car! tail 4)");
+        assertThat(restored.evaluate("shared"), is(list(number(1), number(4), number(3))));
+        assertThat(restored.evaluate("(car (cdr (cdr (cdr ring))))"), is(number(2)));
+    }
+
+    @Test
+    public void image_keeps_vectors() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define table #(1 \"two\" (3)))");
+        interpreter.evaluate("(define self (make-vector 2 table))");
+        interpreter.evaluate("(vector-set! self 0 self)");
+
+        Interpreter restored = restore(interpreter);
+
+        assertThat(restored.evaluate("table"), is(vector(number(1), string("two"), list(number(3)))));
+        assertThat(restored.evaluate("(eq? (vector-ref self 0) self)"), is(bool(true)));
+        restored.evaluate("(vector-set! table 0 'one)");
+        assertThat(restored.evaluate("(vector-ref (vector-ref self 1) 0)"), is(symbol("one")));
+    }
+
+    @Test
+    public void image_keeps_hash_tables() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define key (cons 'k '()))");
+        interpreter.evaluate("(define by-identity (make-hash-table eq?))");
+        interpreter.evaluate("(define by-contents (make-hash-table))");
+        interpreter.evaluate("(hash-table-set! by-identity key by-contents)");
+        interpreter.evaluate("(hash-table-set! by-contents \"two\" 2)");
+        interpreter.evaluate("(hash-table-set! by-contents 'self by-contents)");
+
+        Interpreter restored = restore(interpreter);
+
+        assertThat(restored.evaluate("(hash-table-ref (hash-table-ref by-identity key) \"two\")"), is(number(2)));
+        assertThat(restored.evaluate("(hash-table-ref/default by-identity (cons 'k '()) #f)"), is(bool(false)));
+        assertThat(restored.evaluate("(eq? (hash-table-ref by-contents 'self) by-contents)"), is(bool(true)));
+    }
+
+    @Test
+    public void image_binds_procedures_to_new_interpreter() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define (greet name) (display \"hello\" name))");
+        interpreter.evaluate("(define show display)");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Interpreter restored = new Interpreter(new ByteArrayInputStream(new byte[0]), new PrintStream(output, true));
+        restored.loadImage(save(interpreter));
+        restored.evaluate("(greet \"world\")");
+        restored.evaluate("(show \"!\")");
+
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8), is("hello world!"));
+    }
+
+    @Test
+    public void image_keeps_redefined_primitives() throws IOException {
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define (+ a b) (* a b))");
+
+        assertThat(restore(interpreter).evaluate("(+ 3 4)"), is(number(12)));
+    }
+
+    @Test
+    public void loading_other_file_fails() throws IOException {
+        thrown.expect(UncheckedIOException.class);
+
+        String file = folder.newFile().toString();
+        Files.write(Paths.get(file), "(define x 1)".getBytes(StandardCharsets.UTF_8));
+        new Interpreter().loadImage(file);
+    }
+
+    private Interpreter restore(Interpreter interpreter) throws IOException {
+        Interpreter restored = new Interpreter();
+        restored.loadImage(save(interpreter));
+        return restored;
+    }
+
+    private String save(Interpreter interpreter) throws IOException {
+        String file = folder.newFile().toString();
+        interpreter.saveImage(file);
+        return file;
+    }
+}
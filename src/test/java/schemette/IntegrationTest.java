@@ -5,16 +5,24 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import schemette.environment.DefaultEnvironment;
 import schemette.environment.Environment;
+import schemette.exception.SchemeError;
 import schemette.exception.UnexpectedExpression;
+import schemette.exception.VariableNotDefinedException;
 import schemette.expressions.Expression;
 
+import java.math.BigInteger;
+import java.util.HashMap;
+
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static schemette.cons.Cons.cons;
 import static schemette.cons.Cons.empty;
 import static schemette.expressions.BooleanExpression.bool;
 import static schemette.expressions.ListExpression.list;
 import static schemette.expressions.NumberExpression.number;
+import static schemette.expressions.SymbolExpression.symbol;
+import static schemette.expressions.VectorExpression.vector;
 
 public class IntegrationTest {
 
@@ -32,6 +40,122 @@ public class IntegrationTest {
         assertThat(result, is(number(6)));
     }
 
+    @Test
+    public void fixnum_overflow_promotes_to_bignum() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (factorial n) (if (= n 1) 1 (* n (factorial (- n 1)))))", environment);
+        for (int i = 0; i < 3; i++) {
+            assertThat(eval("(factorial 25)", environment), is(number(new BigInteger("15511210043330985984000000"))));
+        }
+        assertThat(eval("(+ 9223372036854775807 1)", environment), is(number(new BigInteger("9223372036854775808"))));
+        assertThat(eval("(- -9223372036854775808 1)", environment), is(number(new BigInteger("-9223372036854775809"))));
+        assertThat(eval("(/ -9223372036854775808 -1)", environment), is(number(new BigInteger("9223372036854775808"))));
+        assertThat(eval("(- (* 4611686018427387904 2) 9223372036854775807)", environment), is(number(1)));
+        assertThat(eval("(< 9223372036854775807 9223372036854775808)", environment), is(bool(true)));
+    }
+
+    @Test
+    public void flonum_arithmetic() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (mean a b) (/ (+ a b) 2.0))", environment);
+        assertThat(eval("(mean 1.5 2.25)", environment), is(number(1.875)));
+        assertThat(eval("(mean 1 2)", environment), is(number(1.5)));
+        assertThat(eval("(/ 7 2)", environment), is(number(3)));
+        assertThat(eval("(* 2 0.5)", environment), is(number(1.0)));
+        assertThat(eval("(= 1 1.0)", environment), is(bool(true)));
+        assertThat(eval("(eq? 1 1.0)", environment), is(bool(false)));
+        assertThat(eval("(< 1 1.5 2)", environment), is(bool(true)));
+        assertThat(eval("(exact? (exact->inexact 1))", environment), is(bool(false)));
+        assertThat(eval("(inexact->exact 2.75)", environment), is(number(2)));
+    }
+
+    @Test
+    public void vectors() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define v (make-vector 3 'x))", environment);
+        eval("(vector-set! v 1 (vector 1 2))", environment);
+        assertThat(eval("(vector-ref v 1)", environment), is(vector(number(1), number(2))));
+        assertThat(eval("(vector-length v)", environment), is(number(3)));
+        assertThat(eval("(vector->list v)", environment), is(list(symbol("x"), vector(number(1), number(2)), symbol("x"))));
+        assertThat(eval("(list->vector (vector->list #(1 2)))", environment), is(vector(number(1), number(2))));
+        assertThat(eval("(vector? #())", environment), is(bool(true)));
+        thrown.expect(SchemeError.class);
+        eval("(vector-ref v 3)", environment);
+    }
+
+    @Test
+    public void vectors_in_hot_procedures() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (fib n)"
+                + "  (define memo (make-vector (+ n 1) 0))"
+                + "  (define (loop i)"
+                + "    (if (> i n) (vector-ref memo n)"
+                + "        (begin (vector-set! memo i (if (< i 2) i (+ (vector-ref memo (- i 1)) (vector-ref memo (- i 2)))))"
+                + "               (loop (+ i 1)))))"
+                + "  (loop 0))", environment);
+        for (int i = 0; i < 20; i++) {
+            assertThat(eval("(fib 90)", environment), is(number(2880067194370816120L)));
+        }
+    }
+
+    @Test
+    public void hash_tables() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define t (make-hash-table))", environment);
+        eval("(hash-table-set! t '(a b) 1)", environment);
+        eval("(hash-table-set! t \"c\" 2)", environment);
+        eval("(hash-table-update! t '(a b) (lambda (v) (+ v 10)))", environment);
+        eval("(hash-table-update!/default t 'd (lambda (v) (cons 'd v)) '())", environment);
+        assertThat(eval("(hash-table-ref t (cons 'a (cons 'b '())))", environment), is(number(11)));
+        assertThat(eval("(hash-table-ref t 'd)", environment), is(list(symbol("d"))));
+        assertThat(eval("(hash-table-ref t 'e (lambda () 'none))", environment), is(symbol("none")));
+        assertThat(eval("(hash-table-ref/default t 'e 0)", environment), is(number(0)));
+        eval("(hash-table-delete! t \"c\")", environment);
+        assertThat(eval("(hash-table-contains? t \"c\")", environment), is(bool(false)));
+        assertThat(eval("(hash-table-size t)", environment), is(number(2)));
+        assertThat(eval("(null? (cdr (cdr (hash-table-keys t))))", environment), is(bool(true)));
+        assertThat(eval("(hash-table? t)", environment), is(bool(true)));
+        thrown.expect(SchemeError.class);
+        eval("(hash-table-ref t \"c\")", environment);
+    }
+
+    @Test
+    public void eq_hash_tables_compare_keys_by_identity() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define key (cons 1 (cons 2 '())))", environment);
+        eval("(define t (make-hash-table eq?))", environment);
+        eval("(hash-table-set! t key 'same)", environment);
+        eval("(hash-table-set! t 'sym 'symbol)", environment);
+        eval("(hash-table-set! t 100000 'number)", environment);
+        assertThat(eval("(hash-table-ref/default t key #f)", environment), is(symbol("same")));
+        assertThat(eval("(hash-table-ref/default t (cons 1 (cons 2 '())) #f)", environment), is(bool(false)));
+        assertThat(eval("(hash-table-ref/default t 'sym #f)", environment), is(symbol("symbol")));
+        assertThat(eval("(hash-table-ref/default t (* 1000 100) #f)", environment), is(symbol("number")));
+    }
+
+    @Test
+    public void hash_tables_with_many_entries() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define t (make-hash-table))", environment);
+        eval("(define (fill i n) (if (< i n) (begin (hash-table-set! t (cons i '()) (* i i)) (fill (+ i 1) n))))", environment);
+        eval("(define (drop i n) (if (< i n) (begin (hash-table-delete! t (cons i '())) (drop (+ i 2) n))))", environment);
+        eval("(fill 0 5000)", environment);
+        eval("(drop 0 5000)", environment);
+        assertThat(eval("(hash-table-size t)", environment), is(number(2500)));
+        assertThat(eval("(hash-table-ref/default t (cons 4998 '()) #f)", environment), is(bool(false)));
+        assertThat(eval("(hash-table-ref t (cons 4999 '()))", environment), is(number(4999 * 4999)));
+        eval("(define total 0)", environment);
+        eval("(hash-table-walk t (lambda (k v) (set! total (+ total (car k)))))", environment);
+        assertThat(eval("total", environment), is(number(2500 * 2500)));
+    }
+
     @Test
     public void fibonacci() {
         String input = "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))";
@@ -110,6 +234,210 @@ public class IntegrationTest {
         assertThat(result, is(list(number(1), number(2), number(3))));
     }
 
+    @Test
+    public void closure_captures_enclosing_parameters() {
+        Expression result = eval("(((lambda (a) (lambda (b) (+ a b))) 1) 2)");
+
+        assertThat(result, is(number(3)));
+    }
+
+    @Test
+    public void internal_definitions_are_mutually_recursive() {
+        String input = "(define (even? n) (define (e? n) (if (= n 0) #t (o? (- n 1)))) (define (o? n) (if (= n 0) #f (e? (- n 1)))) (e? n))";
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval(input, environment);
+        Expression result = eval("(even? 10)", environment);
+
+        assertThat(result, is(bool(true)));
+    }
+
+    @Test
+    public void set_local_variable() {
+        Expression result = eval("((lambda (x) (set! x 5) x) 1)");
+
+        assertThat(result, is(number(5)));
+    }
+
+    @Test
+    public void tail_calls_run_in_constant_stack() {
+        String input = "(define (loop n acc) (if (= n 0) acc (loop (- n 1) (+ acc 1))))";
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval(input, environment);
+        Expression result = eval("(loop 100000 0)", environment);
+
+        assertThat(result, is(number(100000)));
+    }
+
+    @Test
+    public void tail_calls_through_cond_and_let() {
+        String input = "(define (count n) (cond ((= n 0) (quote done)) (else (let ((m (- n 1))) (count m)))))";
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval(input, environment);
+        Expression result = eval("(count 100000)", environment);
+
+        assertThat(result, is(symbol("done")));
+    }
+
+    @Test
+    public void apply_in_tail_position() {
+        String input = "(define (loop n) (if (= n 0) (quote done) (apply loop (cons (- n 1) (quote ())))))";
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval(input, environment);
+        Expression result = eval("(loop 100000)", environment);
+
+        assertThat(result, is(symbol("done")));
+    }
+
+    @Test
+    public void calls_with_more_than_four_arguments() {
+        Expression result = eval("((lambda (a b c d e . f) (cons e f)) 1 2 3 4 5 6 7)");
+
+        assertThat(result, is(list(number(5), number(6), number(7))));
+    }
+
+    @Test
+    public void redefining_a_primitive_after_use() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (add a b) (+ a b))", environment);
+        assertThat(eval("(add 1 2)", environment), is(number(3)));
+        eval("(define (+ a b) (* a b))", environment);
+        assertThat(eval("(add 2 5)", environment), is(number(10)));
+        eval("(set! + -)", environment);
+        assertThat(eval("(add 2 5)", environment), is(number(-3)));
+    }
+
+    @Test
+    public void primitive_shadowed_by_parameter() {
+        Expression result = eval("((lambda (car) (car 1)) (lambda (x) (+ x 1)))");
+
+        assertThat(result, is(number(2)));
+    }
+
+    @Test
+    public void primitive_not_bound_in_environment() {
+        thrown.expect(VariableNotDefinedException.class);
+
+        eval("(+ 1 2)", new Environment(new HashMap<>()));
+    }
+
+    @Test
+    public void arithmetic_keeps_working_after_a_type_miss() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (less? a b) (< a b))", environment);
+        assertThat(eval("(less? 1 2)", environment), is(bool(true)));
+        try {
+            eval("(less? \"a\" 2)", environment);
+            fail();
+        } catch (UnexpectedExpression expected) {
+        }
+        assertThat(eval("(less? 3 2)", environment), is(bool(false)));
+    }
+
+    @Test
+    public void hot_procedures_keep_working_after_a_type_miss() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (less? a b) (< a b))", environment);
+        eval("(define (count n) (if (= n 0) 0 (begin (less? n 1) (count (- n 1)))))", environment);
+        eval("(count 5000)", environment);
+        try {
+            eval("(less? \"a\" 2)", environment);
+            fail();
+        } catch (UnexpectedExpression expected) {
+        }
+        assertThat(eval("(less? 1 2)", environment), is(bool(true)));
+    }
+
+    @Test
+    public void hot_procedures_see_redefined_primitives() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (sum n acc) (if (= n 0) acc (sum (- n 1) (+ acc n))))", environment);
+        assertThat(eval("(sum 5000 0)", environment), is(number(12502500)));
+        eval("(define (+ a b) (* a b))", environment);
+        assertThat(eval("(sum 3 1)", environment), is(number(6)));
+    }
+
+    @Test
+    public void redefining_primitive_in_operator_position_replaces_call() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (first-of fs x) ((car fs) x))", environment);
+        eval("(define (twice x) (* 2 x))", environment);
+        for (int i = 0; i < 3; i++) {
+            assertThat(eval("(first-of (cons twice '()) 5)", environment), is(number(10)));
+        }
+        eval("(define (car xs) (lambda (x) (* 10 x)))", environment);
+
+        assertThat(eval("(first-of '() 5)", environment), is(number(50)));
+    }
+
+    @Test
+    public void future_runs_thunk_in_parallel() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))", environment);
+        eval("(define f (future (lambda () (fib 15))))", environment);
+
+        assertThat(eval("(+ (fib 15) (touch f))", environment), is(number(1220)));
+        assertThat(eval("(touch 3)", environment), is(number(3)));
+    }
+
+    @Test
+    public void concurrent_definitions_of_a_global_share_its_cell() {
+        for (int i = 0; i < 50; i++) {
+            Environment environment = DefaultEnvironment.newInstance();
+
+            eval("(define (get) x)", environment);
+            eval("(define (task n) (lambda () (eval (cons 'define (cons 'x (cons n '())))) (get)))", environment);
+            eval("(define a (future (task 1)))", environment);
+            eval("(define b (future (task 2)))", environment);
+            eval("(define c (future (task 3)))", environment);
+            eval("(touch a)", environment);
+            eval("(touch b)", environment);
+            eval("(touch c)", environment);
+            eval("(define x 'last)", environment);
+
+            assertThat(eval("(get)", environment), is(symbol("last")));
+        }
+    }
+
+    @Test
+    public void touch_rethrows_error_of_future() {
+        thrown.expect(UnexpectedExpression.class);
+
+        eval("(touch (future (lambda () (car 1))))");
+    }
+
+    @Test
+    public void pmap_keeps_order_of_list() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (count n acc) (if (= n 0) acc (count (- n 1) (cons n acc))))", environment);
+        eval("(define (sum xs acc) (if (null? xs) acc (sum (cdr xs) (+ acc (car xs)))))", environment);
+
+        assertThat(eval("(pmap (lambda (x) (* x x)) '(1 2 3 4))", environment),
+                is(list(number(1), number(4), number(9), number(16))));
+        assertThat(eval("(sum (pmap (lambda (x) (* 2 x)) (count 1000 '())) 0)", environment), is(number(1001000)));
+        assertThat(eval("(pmap (lambda (x) x) '())", environment), is(list()));
+    }
+
+    @Test
+    public void preduce_folds_list() {
+        Environment environment = DefaultEnvironment.newInstance();
+
+        eval("(define (count n acc) (if (= n 0) acc (count (- n 1) (cons n acc))))", environment);
+
+        assertThat(eval("(preduce + 0 (count 1000 '()))", environment), is(number(500500)));
+        assertThat(eval("(preduce * 1 '())", environment), is(number(1)));
+    }
+
     private Expression read(String input) {
         return Reader.read(input).iterator().next();
     }
@@ -0,0 +1,205 @@
+package schemette;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import schemette.expressions.Expression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static schemette.expressions.BooleanExpression.bool;
+import static schemette.expressions.ListExpression.list;
+import static schemette.expressions.NumberExpression.number;
+import static schemette.expressions.StringExpression.string;
+import static schemette.expressions.SymbolExpression.symbol;
+
+public class InterpreterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void interpreters_do_not_share_definitions() {
+        Interpreter first = new Interpreter();
+        Interpreter second = new Interpreter();
+
+        first.evaluate("(define x 1)");
+        second.evaluate("(define x 2)");
+
+        assertThat(first.evaluate("x"), is(number(1)));
+        assertThat(second.evaluate("x"), is(number(2)));
+    }
+
+    @Test
+    public void display_writes_to_the_interpreters_output() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Interpreter interpreter = new Interpreter(new ByteArrayInputStream(new byte[0]), new PrintStream(output, true));
+
+        interpreter.evaluate("(display \"hello\" 42)");
+
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8), is("hello 42"));
+    }
+
+    @Test
+    public void read_reads_from_the_interpreters_input() {
+        byte[] input = "(a b)\n".getBytes(StandardCharsets.UTF_8);
+        Interpreter interpreter = new Interpreter(new ByteArrayInputStream(input), System.out);
+
+        assertThat(interpreter.evaluate("(read)"), is(list(symbol("a"), symbol("b"))));
+    }
+
+    @Test
+    public void eval_uses_the_interpreters_environment() {
+        Interpreter first = new Interpreter();
+        Interpreter second = new Interpreter();
+
+        first.evaluate("(define x 1)");
+        second.evaluate("(eval '(define x 2))");
+
+        assertThat(first.evaluate("(eval 'x)"), is(number(1)));
+        assertThat(second.evaluate("(eval 'x)"), is(number(2)));
+    }
+
+    @Test
+    public void pool_runs_every_script_in_a_new_interpreter() {
+        try (InterpreterPool pool = new InterpreterPool(4, () -> {
+            Interpreter interpreter = new Interpreter();
+            interpreter.evaluate("(define counter 0) (define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))");
+            return interpreter;
+        })) {
+            List<CompletableFuture<Expression>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(pool.evaluate("(set! counter (+ counter 1)) (= counter 1)"));
+                results.add(pool.evaluate("(fib 15)"));
+            }
+
+            for (int i = 0; i < results.size(); i += 2) {
+                assertThat(results.get(i).join(), is(bool(true)));
+                assertThat(results.get(i + 1).join(), is(number(610)));
+            }
+        }
+    }
+
+    @Test
+    public void pool_prepares_one_interpreter_for_each_one_taken() {
+        AtomicInteger created = new AtomicInteger();
+        try (InterpreterPool pool = new InterpreterPool(2, () -> {
+            created.incrementAndGet();
+            return new Interpreter();
+        })) {
+            for (int i = 0; i < 20; i++) {
+                assertThat(pool.evaluate("(+ 1 2)").join(), is(number(3)));
+            }
+        }
+
+        assertThat(created.get() <= 22, is(true));
+    }
+
+    @Test
+    public void pool_prepares_again_after_factory_fails() throws InterruptedException {
+        AtomicInteger preparing = new AtomicInteger();
+        try (InterpreterPool pool = new InterpreterPool(1, () -> {
+            boolean prepared = Thread.currentThread().getName().contains("preparer");
+            if (prepared && preparing.incrementAndGet() == 1) {
+                throw new IllegalStateException("first prepared interpreter fails");
+            }
+            Interpreter interpreter = new Interpreter();
+            interpreter.evaluate(prepared ? "(define prepared #t)" : "(define prepared #f)");
+            return interpreter;
+        })) {
+            boolean prepared = false;
+            for (int i = 0; i < 100 && !prepared; i++) {
+                prepared = pool.evaluate("prepared").join().equals(bool(true));
+                Thread.sleep(10);
+            }
+
+            assertThat(prepared, is(true));
+        }
+    }
+
+    @Test
+    public void load_keeps_compiled_file_until_source_changes() throws IOException {
+        Path source = folder.getRoot().toPath().resolve("lib.scm");
+        Path compiled = folder.getRoot().toPath().resolve("lib.scmc");
+        write(source, "(define (twice x) (* 2 x)) (define data '(1 (2 \"three\"))) (twice 21)");
+
+        assertThat(new Interpreter().load(source.toString()), is(number(42)));
+        assertThat(Files.exists(compiled), is(true));
+
+        Interpreter interpreter = new Interpreter();
+        assertThat(interpreter.load(source.toString()), is(number(42)));
+        assertThat(interpreter.evaluate("(twice 5)"), is(number(10)));
+        assertThat(interpreter.evaluate("data"), is(list(number(1), list(number(2), string("three")))));
+
+        write(source, "(define (twice x) (+ x x x)) (twice 21)");
+        assertThat(new Interpreter().load(source.toString()), is(number(63)));
+        assertThat(new Interpreter().load(source.toString()), is(number(63)));
+    }
+
+    @Test
+    public void failed_load_does_not_keep_compiled_file() throws IOException {
+        Path source = folder.getRoot().toPath().resolve("broken.scm");
+        write(source, "(define x 1) (car '())");
+
+        try {
+            new Interpreter().load(source.toString());
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        assertThat(Files.exists(folder.getRoot().toPath().resolve("broken.scmc")), is(false));
+        assertThat(folder.getRoot().list().length, is(1));
+    }
+
+    @Test
+    public void load_compiles_damaged_file_again_before_running_any_form() throws IOException {
+        Path source = folder.getRoot().toPath().resolve("counted.scm");
+        Path compiled = folder.getRoot().toPath().resolve("counted.scmc");
+        write(source, "(set! loads (+ loads 1)) (define (twice x) (* 2 x)) (twice 21)");
+        Interpreter first = new Interpreter();
+        first.evaluate("(define loads 0)");
+        first.load(source.toString());
+
+        byte[] bytes = Files.readAllBytes(compiled);
+        Files.write(compiled, Arrays.copyOf(bytes, bytes.length - 8));
+
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define loads 0)");
+        assertThat(interpreter.load(source.toString()), is(number(42)));
+        assertThat(interpreter.evaluate("loads"), is(number(1)));
+        assertThat(Files.readAllBytes(compiled), is(bytes));
+    }
+
+    @Test
+    public void load_data_reads_a_file_without_evaluating_it() throws IOException {
+        Path data = folder.getRoot().toPath().resolve("data.scm");
+        write(data, "(a 1) ; comment\n\"λx\" (undefined-procedure)");
+        Interpreter interpreter = new Interpreter();
+        interpreter.evaluate("(define file \"" + data + "\")");
+
+        assertThat(interpreter.evaluate("(load-data file)"),
+                is(list(list(symbol("a"), number(1)), string("λx"), list(symbol("undefined-procedure")))));
+
+        interpreter.evaluate("(define count 0)");
+        interpreter.evaluate("(load-data file (lambda (datum) (set! count (+ count 1))))");
+        assertThat(interpreter.evaluate("count"), is(number(3)));
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -7,14 +7,21 @@ import org.junit.rules.ExpectedException;
 import schemette.exception.UnmatchedParenthesisExpection;
 import schemette.expressions.Expression;
 
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.List;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static schemette.expressions.BooleanExpression.bool;
 import static schemette.expressions.ListExpression.list;
 import static schemette.expressions.NumberExpression.number;
+import static schemette.expressions.StringExpression.string;
 import static schemette.expressions.SymbolExpression.symbol;
+import static schemette.expressions.VectorExpression.vector;
 
 public class ReaderTest {
 
@@ -64,6 +71,47 @@ public class ReaderTest {
         assertThat(exp, is(number(123)));
     }
 
+    @Test
+    public void parse_signed_and_prefixed_numbers() {
+        assertThat(read("-42"), is(number(-42)));
+        assertThat(read("+7"), is(number(7)));
+        assertThat(read("#xff"), is(number(255)));
+        assertThat(read("#b101"), is(number(5)));
+        assertThat(read("-9223372036854775808"), is(number(Long.MIN_VALUE)));
+    }
+
+    @Test
+    public void parse_decimals_and_bignums() {
+        assertThat(read("1.5"), is(number(1.5)));
+        assertThat(read("-.25"), is(number(-0.25)));
+        assertThat(read("2."), is(number(2.0)));
+        assertThat(read("6.02e23"), is(number(6.02e23)));
+        assertThat(read("+inf.0"), is(number(Double.POSITIVE_INFINITY)));
+        assertThat(read("9223372036854775808"), is(number(new BigInteger("9223372036854775808"))));
+        assertThat(read("#x-10000000000000000"), is(number(new BigInteger("-18446744073709551616"))));
+        assertThat(read("1.5").print(), is("1.5"));
+    }
+
+    @Test
+    public void parse_vector_literal() {
+        Expression exp = read("#(1 (a) \"b\" #(2) #t)");
+
+        assertThat(exp, is((Expression) vector(number(1), list(symbol("a")), string("b"), vector(number(2)), bool(true))));
+        assertThat(exp.print(), is("#(1 (a) b #(2) #t)"));
+    }
+
+    @Test
+    public void parse_number_like_symbols() {
+        assertThat(read("-"), is(symbol("-")));
+        assertThat(read("1+"), is(symbol("1+")));
+        assertThat(read("#xyz"), is(symbol("#xyz")));
+        assertThat(read("."), is(symbol(".")));
+        assertThat(read("1.5.2"), is(symbol("1.5.2")));
+        assertThat(read("1e"), is(symbol("1e")));
+        assertThat(read("1.5f"), is(symbol("1.5f")));
+        assertThat(read("99999999999999999999x"), is(symbol("99999999999999999999x")));
+    }
+
     @Test
     public void parse_complex() {
         Expression exp = read("((lambda (a b c) (+ (- a b) c)) 1 2 3)");
@@ -96,6 +144,63 @@ public class ReaderTest {
         assertThat(exps.next(), is(number(2)));
     }
 
+    @Test
+    public void symbols_are_interned() {
+        Expression exp = read("(foo foo)");
+
+        assertThat(exp.list().value.car() == exp.list().value.cadr(), is(true));
+        assertThat(exp.list().value.car() == symbol("foo"), is(true));
+    }
+
+    @Test
+    public void streaming_reader_yields_one_datum_at_a_time() {
+        StreamingReader reader = new StreamingReader(new StringReader("(foo 1) ; comment\n 'bar \"baz\""));
+
+        assertThat(reader.next(), is((Expression) list(symbol("foo"), number(1))));
+        assertThat(reader.next(), is((Expression) list(symbol("quote"), symbol("bar"))));
+        assertThat(reader.next(), is((Expression) string("baz")));
+        assertThat(reader.hasNext(), is(false));
+    }
+
+    @Test
+    public void streaming_reader_unterminated_list() {
+        thrown.expect(UnmatchedParenthesisExpection.class);
+        thrown.expectMessage("Missing closing parenthesis ')'");
+
+        StreamingReader.of("(foo (bar)").next();
+    }
+
+    @Test
+    public void parallel_reader_splits_only_between_top_level_forms() {
+        String text = "(a \"b) (c\" ; d)\n e) ' f\"g \"h i\" 'j;k (l\n(m)(n)\u3000o\u3000\"p q\" \"λ\" ";
+        List<Expression> expected = ImmutableList.copyOf(StreamingReader.of(text));
+
+        for (int chunkSize = 1; chunkSize <= text.length(); chunkSize++) {
+            ParallelReader reader = new ParallelReader(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), chunkSize);
+            assertThat(ImmutableList.copyOf(reader), is(expected));
+        }
+    }
+
+    @Test
+    public void parallel_reader_returns_forms_before_an_error() {
+        ParallelReader reader = new ParallelReader(ByteBuffer.wrap("1 2 (3".getBytes(StandardCharsets.UTF_8)), 1);
+
+        assertThat(reader.next(), is((Expression) number(1)));
+        assertThat(reader.next(), is((Expression) number(2)));
+        thrown.expect(UnmatchedParenthesisExpection.class);
+        reader.next();
+    }
+
+    @Test
+    public void parallel_reader_returns_forms_before_an_error_in_the_same_chunk() {
+        ParallelReader reader = new ParallelReader(ByteBuffer.wrap("(a) (b) ) (c) (d)".getBytes(StandardCharsets.UTF_8)), 9);
+
+        assertThat(reader.next(), is((Expression) list(symbol("a"))));
+        assertThat(reader.next(), is((Expression) list(symbol("b"))));
+        thrown.expect(UnmatchedParenthesisExpection.class);
+        reader.next();
+    }
+
     private Expression read(String foo) {
         return Reader.read(foo).iterator().next();
     }